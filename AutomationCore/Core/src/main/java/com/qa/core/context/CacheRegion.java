@@ -0,0 +1,323 @@
+package com.qa.core.context;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Named cache with its own size limit, expiry and optional disk or shared tier, see
+ * {@link CustomCacheManager}. Memory hits, misses, loads and evictions are recorded by the memory
+ * tier, hits and misses of the second tier are counted separately.
+ *
+ * A region shared across forks keeps the entries it read from the shared file in memory along
+ * with their stamps, and reads an entry again only once another fork has replaced it. The stamp of
+ * an entry is compared at most once per {@link #STAMP_CHECK_INTERVAL_MS}, so a memory hit does not
+ * lock the file and a replacement by another fork is seen within that interval.
+ */
+public final class CacheRegion {
+
+    static final long STAMP_CHECK_INTERVAL_MS = 100;
+
+    private final String name;
+    private final CacheSettings settings;
+    private final Cache<String, Object> memory;
+    private final CacheTier tier;
+    private final SharedCacheTier shared;
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder diskMisses = new LongAdder();
+
+    CacheRegion(String name, CacheSettings settings, Path diskFolder, Path sharedFile) {
+        this.name = name;
+        this.settings = settings;
+        this.memory = CacheBuilder.newBuilder()
+                .maximumWeight(settings.getMaximumWeight())
+                .weigher((String key, Object value) -> weigh(settings, key, value))
+                .expireAfterWrite(settings.getExpireAfterWrite().toMillis(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        this.shared = settings.isSharedAcrossForks() ? new SharedCacheTier(sharedFile, settings.getExpireAfterWrite()) : null;
+        if (shared != null)
+            this.tier = shared;
+        else
+            this.tier = settings.isDiskBacked() ? new DiskCacheTier(diskFolder, settings.getExpireAfterWrite()) : null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CacheSettings getSettings() {
+        return settings;
+    }
+
+    public void put(String key, Object value) {
+        memory.put(key, tier == null ? value : tier.put(key, value));
+    }
+
+    /***
+     * Returns a cached value, a value found in the second tier only is loaded back into memory
+     *
+     * @param key - cache key
+     * @return cached value, or null if the key is not cached
+     * @author vamsikrishna.kayyala
+     */
+    public Object get(String key) {
+        Object value = memory.getIfPresent(key);
+        if (value != null && isCurrent(key, value))
+            return unwrap(value);
+        if (tier == null)
+            return null;
+        value = readFromTier(key);
+        if (value != null)
+            memory.put(key, value);
+        return unwrap(value);
+    }
+
+    public boolean contains(String key) {
+        return get(key) != null;
+    }
+
+    /***
+     * Returns the cached value of a key or loads it. Concurrent callers of a key which is being loaded
+     * wait for that load instead of running the loader again. In a region shared across forks, the
+     * value stored first by any of the forks is returned. A null result is returned as it is and is
+     * not cached
+     *
+     * @param key    - cache key
+     * @param loader - computes the value when it is neither in memory nor in the second tier
+     * @return cached or loaded value
+     * @author vamsikrishna.kayyala
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T computeIfAbsent(String key, Supplier<T> loader) {
+        try {
+            Object value;
+            do {
+                value = memory.get(key, () -> {
+                    Object loaded = tier == null ? null : readFromTier(key);
+                    if (loaded == null) {
+                        loaded = loader.get();
+                        if (loaded != null && tier != null)
+                            loaded = storeInTier(key, loaded);
+                    }
+                    return loaded;
+                });
+            } while (!isCurrent(key, value));
+            return (T) unwrap(value);
+        } catch (CacheLoader.InvalidCacheLoadException e) {
+            // the loader returned null, there is nothing to cache
+            return null;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException("Unable to load the cache entry " + key + " of " + name, e.getCause());
+        } catch (ExecutionError e) {
+            throw (Error) e.getCause();
+        }
+    }
+
+    /***
+     * Stores a value only if the key is not cached yet, atomically across the forks when the region
+     * is shared
+     *
+     * @param key   - cache key
+     * @param value - value to store
+     * @return value cached already, or null if the given value was stored
+     * @author vamsikrishna.kayyala
+     */
+    public Object putIfAbsent(String key, Object value) {
+        if (shared == null) {
+            Object current = get(key);
+            if (current != null)
+                return current;
+            Object previous = memory.asMap().putIfAbsent(key, value);
+            if (previous != null)
+                return unwrap(previous);
+            if (tier != null)
+                memory.asMap().replace(key, value, tier.put(key, value));
+            return null;
+        }
+        Object local = getLocalEntry(key);
+        if (local != null)
+            return unwrap(local);
+        Object stored = storeInTier(key, value);
+        memory.put(key, stored);
+        // an entry stored by another fork is read back as a copy, never as the given instance
+        Object current = unwrap(stored);
+        return current == value ? null : current;
+    }
+
+    /***
+     * Replaces the cached value of a key only if it is still equal to the expected value, atomically
+     * across the forks when the region is shared
+     *
+     * @param key      - cache key
+     * @param expected - value the key must hold
+     * @param value    - new value
+     * @return true if the value was replaced
+     * @author vamsikrishna.kayyala
+     */
+    public boolean replace(String key, Object expected, Object value) {
+        if (shared == null) {
+            Object current = get(key);
+            if (current == null || !Objects.equals(current, expected))
+                return false;
+            Object inMemory = memory.getIfPresent(key);
+            return inMemory != null && memory.asMap().replace(key, inMemory, tier == null ? value : tier.put(key, value));
+        }
+        Object local = getLocalEntry(key);
+        if (local != null) {
+            if (!Objects.equals(unwrap(local), expected))
+                return false;
+            return memory.asMap().replace(key, local, shared.put(key, value));
+        }
+        CacheTier.Entry current = shared.get(key);
+        if (current == null || !Objects.equals(current.getValue(), expected))
+            return false;
+        CacheTier.Entry stored = shared.compareAndSet(key, current.getStamp(), value);
+        if (stored == null)
+            return false;
+        memory.put(key, stored);
+        return true;
+    }
+
+    public void invalidate(String key) {
+        memory.invalidate(key);
+        if (tier != null)
+            tier.delete(key);
+    }
+
+    public void invalidateAll() {
+        memory.invalidateAll();
+        if (tier != null)
+            tier.clear();
+    }
+
+    /***
+     * Returns the statistics of the memory tier, hit, miss, load and eviction counts
+     *
+     * @return memory tier statistics since the region was created
+     * @author vamsikrishna.kayyala
+     */
+    public CacheStats getStats() {
+        return memory.stats();
+    }
+
+    public long getDiskHitCount() {
+        return diskHits.sum();
+    }
+
+    public long getDiskMissCount() {
+        return diskMisses.sum();
+    }
+
+    public long size() {
+        return memory.size();
+    }
+
+    @Override
+    public String toString() {
+        CacheStats stats = memory.stats();
+        return name + " [entries=" + memory.size() + ", hits=" + stats.hitCount() + ", misses=" + stats.missCount()
+                + ", loads=" + stats.loadCount() + ", evictions=" + stats.evictionCount()
+                + (tier == null ? "" : ", diskHits=" + diskHits.sum() + ", diskMisses=" + diskMisses.sum()) + "]";
+    }
+
+    /**
+     * Returns the entry of a key from the second tier, the entry is kept as it is in memory so it does
+     * not outlive the expiry it was written with
+     */
+    private Object readFromTier(String key) {
+        CacheTier.Entry entry = tier.get(key);
+        if (entry == null)
+            diskMisses.increment();
+        else
+            diskHits.increment();
+        return entry;
+    }
+
+    /**
+     * Stores a loaded value in the second tier. A shared region stores it only if no other fork has
+     * stored the key meanwhile, otherwise the value of that fork is used so all the forks agree on it
+     */
+    private Object storeInTier(String key, Object value) {
+        if (shared == null)
+            return tier.put(key, value);
+        long expectedStamp = 0;
+        while (true) {
+            CacheTier.Entry stored = shared.compareAndSet(key, expectedStamp, value);
+            if (stored != null)
+                return stored;
+            CacheTier.Entry current = shared.get(key);
+            if (current != null)
+                return current;
+            // the entry expired meanwhile or cannot be read by this fork, it is replaced
+            expectedStamp = shared.stampOf(key);
+        }
+    }
+
+    /**
+     * Returns the entry of a shared region held only in memory, such as a value which cannot be
+     * serialized or does not fit in a slot of the shared file, or null
+     */
+    private Object getLocalEntry(String key) {
+        Object value = memory.getIfPresent(key);
+        if (value instanceof CacheTier.Entry && ((CacheTier.Entry) value).getStamp() == 0 && isCurrent(key, value))
+            return value;
+        return null;
+    }
+
+    /**
+     * Tells whether a value held in memory can still be used, it is removed from memory otherwise
+     */
+    private boolean isCurrent(String key, Object value) {
+        if (!(value instanceof CacheTier.Entry))
+            return true;
+        CacheTier.Entry entry = (CacheTier.Entry) value;
+        if (!entry.isExpired()) {
+            if (shared == null)
+                return true;
+            long now = System.currentTimeMillis();
+            if (now - entry.getVerifiedAt() < STAMP_CHECK_INTERVAL_MS)
+                return true;
+            if (shared.stampOf(key) == entry.getStamp()) {
+                entry.setVerifiedAt(now);
+                return true;
+            }
+        }
+        memory.asMap().remove(key, value);
+        return false;
+    }
+
+    /**
+     * Releases the shared file of the region, the region must not be used afterwards
+     */
+    void close() {
+        if (shared != null)
+            shared.close();
+    }
+
+    /**
+     * Weighs an entry of the shared file on the size it was serialized to, so the default weigher
+     * does not serialize the value a second time
+     */
+    private static int weigh(CacheSettings settings, String key, Object value) {
+        if (value instanceof CacheTier.Entry && ((CacheTier.Entry) value).getSize() > 0 && settings.isEstimatedWeight())
+            return (int) Math.min(Integer.MAX_VALUE, (long) CacheSettings.estimateWeight(key) + ((CacheTier.Entry) value).getSize());
+        return settings.getWeigher().weigh(key, unwrap(value));
+    }
+
+    private static Object unwrap(Object value) {
+        return value instanceof CacheTier.Entry ? ((CacheTier.Entry) value).getValue() : value;
+    }
+}
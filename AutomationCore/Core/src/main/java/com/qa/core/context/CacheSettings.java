@@ -0,0 +1,212 @@
+package com.qa.core.context;
+
+import com.google.common.cache.Weigher;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Configuration of a {@link CustomCacheManager} region. Entries are weighed by their approximate
+ * size in bytes unless another weigher is set, so a few large API responses evict as much as many
+ * small tokens do. Objects other than strings, numbers, arrays, collections and maps are weighed by
+ * their serialized size, a region holding large objects which are not serializable needs a weigher
+ * of its own as those count as a small fixed size. The default weigher runs under the lock of the
+ * cache, so a region holding large objects which are serialized to be weighed can set a cheaper
+ * weigher of its own.
+ */
+public final class CacheSettings {
+
+    private static final int MAX_WEIGH_DEPTH = 4;
+    private static final int UNKNOWN_WEIGHT = 64;
+
+    private long maximumWeight = 64L * 1024 * 1024;
+    private Duration expireAfterWrite = Duration.ofMinutes(15);
+    private Weigher<String, Object> weigher = (key, value) -> estimateWeight(key) + estimateWeight(value);
+    // true while the default weigher is used, which can be given the serialized size known already
+    private boolean estimatedWeight = true;
+    private boolean diskBacked = false;
+    private boolean sharedAcrossForks = false;
+
+    private CacheSettings() {}
+
+    /***
+     * Returns the default settings, entries are kept for 15 minutes and the region holds up to
+     * 64 MB of approximate entry size. The cache used to hold up to 1000 entries of any size, use
+     * {@link #maximumEntries(long)} to limit a region on the number of entries as before
+     *
+     * @return new settings which can be modified further
+     * @author vamsikrishna.kayyala
+     */
+    public static CacheSettings defaults() {
+        return new CacheSettings();
+    }
+
+    /***
+     * Sets the total weight the region can hold before the least recently used entries are evicted
+     *
+     * @param maximumWeight - total weight, approximate bytes when the default weigher is used
+     * @return these settings
+     * @author vamsikrishna.kayyala
+     */
+    public CacheSettings maximumWeight(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        return this;
+    }
+
+    /***
+     * Limits the region on the number of entries instead of their size, every entry weighs 1
+     *
+     * @param maximumEntries - number of entries the region can hold
+     * @return these settings
+     * @author vamsikrishna.kayyala
+     */
+    public CacheSettings maximumEntries(long maximumEntries) {
+        this.maximumWeight = maximumEntries;
+        this.weigher = (key, value) -> 1;
+        this.estimatedWeight = false;
+        return this;
+    }
+
+    public CacheSettings weigher(Weigher<String, Object> weigher) {
+        this.weigher = weigher;
+        this.estimatedWeight = false;
+        return this;
+    }
+
+    public CacheSettings expireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+        return this;
+    }
+
+    /***
+     * Keeps a copy of the serializable entries on disk, under the build folder, so expensive values
+     * such as auth tokens survive the eviction from memory and are shared by the following runs
+     * until they expire
+     *
+     * @param diskBacked - true to enable the disk tier
+     * @return these settings
+     * @author vamsikrishna.kayyala
+     */
+    public CacheSettings diskBacked(boolean diskBacked) {
+        this.diskBacked = diskBacked;
+        return this;
+    }
+
+    /***
+     * Shares the serializable entries with the other JVMs of the machine, such as the test JVMs
+     * forked by gradle, through a memory-mapped file under the build folder. A fork asking for a key
+     * which another fork has loaded already gets that value instead of loading it again. The entries
+     * also survive the following runs until they expire, so a shared region needs no disk tier
+     *
+     * @param sharedAcrossForks - true to share the region
+     * @return these settings
+     * @author vamsikrishna.kayyala
+     */
+    public CacheSettings sharedAcrossForks(boolean sharedAcrossForks) {
+        this.sharedAcrossForks = sharedAcrossForks;
+        return this;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public Weigher<String, Object> getWeigher() {
+        return weigher;
+    }
+
+    boolean isEstimatedWeight() {
+        return estimatedWeight;
+    }
+
+    public boolean isDiskBacked() {
+        return diskBacked;
+    }
+
+    public boolean isSharedAcrossForks() {
+        return sharedAcrossForks;
+    }
+
+    /***
+     * Approximates the size of a value in bytes, strings, arrays, collections and maps are measured
+     * on their content and any other serializable object on its serialized size. Objects which
+     * cannot be serialized count as a small fixed size
+     *
+     * @param value - cached value
+     * @return approximate size in bytes
+     * @author vamsikrishna.kayyala
+     */
+    public static int estimateWeight(Object value) {
+        return (int) Math.min(Integer.MAX_VALUE, estimateWeight(value, 0));
+    }
+
+    private static long estimateWeight(Object value, int depth) {
+        if (value == null)
+            return 0;
+        if (value instanceof CharSequence)
+            return 40 + 2L * ((CharSequence) value).length();
+        if (value instanceof byte[])
+            return 16 + ((byte[]) value).length;
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum)
+            return 16;
+        if (depth == MAX_WEIGH_DEPTH)
+            return serializedWeight(value);
+        long weight = 16;
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                weight += 32 + estimateWeight(entry.getKey(), depth + 1) + estimateWeight(entry.getValue(), depth + 1);
+        } else if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value)
+                weight += 8 + estimateWeight(item, depth + 1);
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            if (value.getClass().getComponentType().isPrimitive())
+                return weight + 8L * length;
+            for (int i = 0; i < length; i++)
+                weight += 8 + estimateWeight(Array.get(value, i), depth + 1);
+        } else {
+            weight = serializedWeight(value);
+        }
+        return weight;
+    }
+
+    private static long serializedWeight(Object value) {
+        if (!(value instanceof Serializable))
+            return UNKNOWN_WEIGHT;
+        CountingOutputStream counter = new CountingOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(value);
+        } catch (IOException | RuntimeException e) {
+            // a field of the object is not serializable, or the object was modified while it was written
+            return UNKNOWN_WEIGHT;
+        }
+        return counter.count;
+    }
+
+    /**
+     * Counts the bytes written without keeping them
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private long count = 0;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
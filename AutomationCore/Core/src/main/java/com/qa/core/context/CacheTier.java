@@ -0,0 +1,93 @@
+package com.qa.core.context;
+
+import java.io.Serializable;
+
+/**
+ * Second tier of a cache region, it keeps the entries outside of the heap of the current JVM
+ */
+interface CacheTier {
+
+    /***
+     * Reads an entry
+     *
+     * @param key - cache key
+     * @return cached entry, or null if the entry is not present, expired or unreadable
+     * @author vamsikrishna.kayyala
+     */
+    Entry get(String key);
+
+    /***
+     * Stores an entry, values which cannot be stored are kept in memory only
+     *
+     * @param key   - cache key
+     * @param value - value to store
+     * @return stored entry
+     * @author vamsikrishna.kayyala
+     */
+    Entry put(String key, Object value);
+
+    void delete(String key);
+
+    void clear();
+
+    /**
+     * Value read from a tier together with the time it expires at. The stamp identifies the write
+     * which stored the value, it is 0 when the tier does not track writes. The time the stamp was
+     * last found to be current is kept with the entry, an entry is current when it is created
+     */
+    final class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final String key;
+        private final Object value;
+        private final long expiresAt;
+        private final transient long stamp;
+        // serialized size of the value in bytes, 0 when it is not known
+        private final transient int size;
+        private transient volatile long verifiedAt;
+
+        Entry(String key, Object value, long expiresAt, long stamp) {
+            this(key, value, expiresAt, stamp, 0);
+        }
+
+        Entry(String key, Object value, long expiresAt, long stamp, int size) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.stamp = stamp;
+            this.size = size;
+            this.verifiedAt = System.currentTimeMillis();
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        Object getValue() {
+            return value;
+        }
+
+        long getExpiresAt() {
+            return expiresAt;
+        }
+
+        long getStamp() {
+            return stamp;
+        }
+
+        int getSize() {
+            return size;
+        }
+
+        long getVerifiedAt() {
+            return verifiedAt;
+        }
+
+        void setVerifiedAt(long verifiedAt) {
+            this.verifiedAt = verifiedAt;
+        }
+
+        boolean isExpired() {
+            return expiresAt < System.currentTimeMillis();
+        }
+    }
+}
@@ -1,30 +1,126 @@
 package com.qa.core.context;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.TimeUnit;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
+/**
+ * Cache shared by all the tests of a run, organized in named regions. Every region has its own
+ * size limit, expiry and optional disk tier, see {@link CacheSettings}. A region can also be shared
+ * with the other test JVMs forked on the machine through a memory-mapped file under the build
+ * folder. Regions which are not configured explicitly are created with the default settings on
+ * their first use, the methods without a region name work on the default region.
+ *
+ * The default region holds up to 64 MB of approximate entry size instead of the 1000 entries the
+ * cache used to hold, configure it with {@link CacheSettings#maximumEntries(long)} to keep the
+ * former limit.
+ */
 @Component
 @Lazy
 public class CustomCacheManager {
 
-    private final Cache<String, Object> cacheManager =
-            CacheBuilder.newBuilder().maximumSize(1000).expireAfterWrite(15, TimeUnit.MINUTES).build();
+    public static final String DEFAULT_REGION = "default";
 
-    public CustomCacheManager() {}
+    private final CoreParameters parameters;
+    private final ConcurrentHashMap<String, CacheRegion> regions = new ConcurrentHashMap<>();
+
+    public CustomCacheManager(CoreParameters parameters) {
+        this.parameters = parameters;
+    }
+
+    /***
+     * Creates a region with the given settings, replacing the existing region of that name and all
+     * of its in memory entries
+     *
+     * @param name     - region name
+     * @param settings - size limit, expiry and disk tier of the region
+     * @return created region
+     * @author vamsikrishna.kayyala
+     */
+    public CacheRegion configureRegion(String name, CacheSettings settings) {
+        CacheRegion region = createRegion(name, settings);
+        regions.put(name, region);
+        return region;
+    }
+
+    /***
+     * Returns a region, it is created with the default settings if it is not configured yet
+     *
+     * @param name - region name
+     * @return cache region
+     * @author vamsikrishna.kayyala
+     */
+    public CacheRegion region(String name) {
+        CacheRegion region = regions.get(name);
+        if (region == null)
+            region = regions.computeIfAbsent(name, key -> createRegion(key, CacheSettings.defaults()));
+        return region;
+    }
+
+    public Collection<CacheRegion> getRegions() {
+        return Collections.unmodifiableCollection(regions.values());
+    }
 
     public void storeInCache(String key, Object value) {
-        cacheManager.put(key, value);
+        region(DEFAULT_REGION).put(key, value);
     }
 
     public Object getFromCache(String key) {
-        return cacheManager.asMap().get(key);
+        return region(DEFAULT_REGION).get(key);
     }
 
     public boolean isCached(String key) {
-        return cacheManager.asMap().containsKey(key);
+        return region(DEFAULT_REGION).contains(key);
+    }
+
+    /***
+     * Returns the cached value of a key from the default region or loads it, the loader runs once
+     * even when several threads ask for the same key at the same time
+     *
+     * @param key    - cache key
+     * @param loader - computes the value when it is not cached
+     * @return cached or loaded value
+     * @author vamsikrishna.kayyala
+     */
+    public <T> T computeIfAbsent(String key, Supplier<T> loader) {
+        return region(DEFAULT_REGION).computeIfAbsent(key, loader);
+    }
+
+    public <T> T computeIfAbsent(String regionName, String key, Supplier<T> loader) {
+        return region(regionName).computeIfAbsent(key, loader);
+    }
+
+    public void invalidate(String regionName, String key) {
+        region(regionName).invalidate(key);
+    }
+
+    /***
+     * Returns the hit, miss, load and eviction statistics of every region
+     *
+     * @return statistics by region name
+     * @author vamsikrishna.kayyala
+     */
+    public Map<String, CacheStats> getStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        regions.forEach((name, region) -> stats.put(name, region.getStats()));
+        return stats;
+    }
+
+    public void printStats() {
+        regions.values().forEach(region -> System.out.println("Cache region " + region));
+    }
+
+    private CacheRegion createRegion(String name, CacheSettings settings) {
+        Path folder = Paths.get(parameters.getTargetFolderPath(), "cache");
+        return new CacheRegion(name, settings, folder.resolve(name), folder.resolve(name + ".shared"));
     }
 }
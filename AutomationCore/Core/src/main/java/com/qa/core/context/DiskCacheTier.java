@@ -0,0 +1,104 @@
+package com.qa.core.context;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+
+/**
+ * Second tier of a cache region, every entry is a serialized file named after the hash of its key.
+ * Files are replaced atomically, so a reader in another thread or JVM never sees a partial entry,
+ * and an entry which cannot be read back is treated as a miss.
+ */
+final class DiskCacheTier implements CacheTier {
+
+    private final Path directory;
+    private final long timeToLiveMillis;
+
+    DiskCacheTier(Path directory, Duration timeToLive) {
+        this.directory = directory;
+        this.timeToLiveMillis = timeToLive.toMillis();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to create the cache folder " + directory, e);
+        }
+    }
+
+    @Override
+    public Entry get(String key) {
+        Path file = fileOf(key);
+        if (!Files.exists(file))
+            return null;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Entry entry = (Entry) in.readObject();
+            if (!entry.getKey().equals(key))
+                return null;
+            if (entry.isExpired()) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return entry;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            delete(key);
+            return null;
+        }
+    }
+
+    @Override
+    public Entry put(String key, Object value) {
+        Entry entry = new Entry(key, value, System.currentTimeMillis() + timeToLiveMillis, 0);
+        if (!(value instanceof Serializable))
+            return entry;
+        Path file = fileOf(key);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeObject(entry);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // the disk tier is best effort, the value is still cached in memory
+            System.out.println("Unable to write the cache entry " + key + " to disk: " + e.getMessage());
+            if (temp != null)
+                temp.toFile().delete();
+        }
+        return entry;
+    }
+
+    @Override
+    public void delete(String key) {
+        fileOf(key).toFile().delete();
+    }
+
+    @Override
+    public void clear() {
+        File[] files = directory.toFile().listFiles((dir, name) -> name.endsWith(".bin"));
+        if (files != null) {
+            for (File file : files)
+                file.delete();
+        }
+    }
+
+    private Path fileOf(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(hash.length * 2 + 4);
+            for (byte b : hash)
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return directory.resolve(name.append(".bin").toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.qa.core.context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Pre-compiled form of a value holding &lt;&lt;key&gt;&gt; placeholders. The value is tokenized once
+ * into literal text and property references, the key~~default form is split at the same time,
+ * so rendering the value again is a single pass over the parts.
+ *
+ * Placeholders are found the same way as the &lt;&lt;(.+?)&gt;&gt; pattern finds them.
+ */
+final class PlaceholderTemplate {
+
+    private static final int MAX_CACHED_TEMPLATES = 4096;
+    private static final ConcurrentHashMap<String, PlaceholderTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final String source;
+    private final String[] literals;
+    private final String[] placeholders;
+    private final String[] keys;
+    private final String[] defaults;
+
+    private PlaceholderTemplate(String source, String[] literals, String[] placeholders, String[] keys, String[] defaults) {
+        this.source = source;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.keys = keys;
+        this.defaults = defaults;
+    }
+
+    /***
+     * Returns the compiled template of a value, templates are cached and shared by all the threads
+     *
+     * @param source - value which may hold &lt;&lt;key&gt;&gt; placeholders
+     * @return compiled template
+     * @author vamsikrishna.kayyala
+     */
+    static PlaceholderTemplate compile(String source) {
+        PlaceholderTemplate template = TEMPLATES.get(source);
+        if (template == null) {
+            template = tokenize(source);
+            if (TEMPLATES.size() < MAX_CACHED_TEMPLATES)
+                TEMPLATES.putIfAbsent(source, template);
+        }
+        return template;
+    }
+
+    boolean hasPlaceholders() {
+        return keys.length > 0;
+    }
+
+    /***
+     * Renders the template, a placeholder whose value is not known is left as it is
+     *
+     * @param resolver - returns the value of a key, receives the key and its default value
+     * @return value with the placeholders replaced by their values
+     * @author vamsikrishna.kayyala
+     */
+    String render(BiFunction<String, String, String> resolver) {
+        if (keys.length == 0)
+            return source;
+        StringBuilder sb = new StringBuilder(source.length() + 16);
+        for (int i = 0; i < keys.length; i++) {
+            String value = resolver.apply(keys[i], defaults[i]);
+            sb.append(literals[i]).append(value == null ? placeholders[i] : value);
+        }
+        return sb.append(literals[keys.length]).toString();
+    }
+
+    private static PlaceholderTemplate tokenize(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<String> defaults = new ArrayList<>();
+        int literalStart = 0;
+        int start = source.indexOf("<<");
+        while (start >= 0) {
+            int end = findEnd(source, start);
+            if (end < 0) {
+                // same as the regex, a failed match is retried from the next character
+                start = source.indexOf("<<", start + 1);
+                continue;
+            }
+            String name = source.substring(start + 2, end);
+            // same defaults as RunConfiguration.getProperty, key~~default or the key itself
+            String key = name;
+            String defaultValue = name;
+            int separator = name.indexOf("~~");
+            if (separator >= 0) {
+                key = name.substring(0, separator);
+                defaultValue = name.substring(separator + 2).split("~~")[0];
+            }
+            literals.add(source.substring(literalStart, start));
+            placeholders.add(source.substring(start, end + 2));
+            keys.add(key);
+            defaults.add(defaultValue);
+            literalStart = end + 2;
+            start = source.indexOf("<<", literalStart);
+        }
+        literals.add(source.substring(literalStart));
+        return new PlaceholderTemplate(source, literals.toArray(new String[0]), placeholders.toArray(new String[0]),
+                keys.toArray(new String[0]), defaults.toArray(new String[0]));
+    }
+
+    /**
+     * Returns the index of the closing &gt;&gt; of a placeholder opened at the given index, the key
+     * holds at least one character and never spans a line terminator. Returns -1 if it is not closed
+     */
+    private static int findEnd(String source, int start) {
+        for (int end = start + 3; end + 1 < source.length(); end++) {
+            if (isLineTerminator(source.charAt(end - 1)))
+                return -1;
+            if (source.charAt(end) == '>' && source.charAt(end + 1) == '>')
+                return end;
+        }
+        return -1;
+    }
+
+    private static boolean isLineTerminator(char ch) {
+        return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+    }
+}
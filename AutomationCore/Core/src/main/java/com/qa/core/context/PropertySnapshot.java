@@ -0,0 +1,208 @@
+package com.qa.core.context;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable view of the run configuration of a thread, flattened for the current environment and
+ * with all the &lt;&lt;key&gt;&gt; placeholders resolved up front. A key maps to the value of
+ * key_env, key_envId or key, in that order, so a read is a single map lookup.
+ *
+ * Values resolved through {@link #resolveString(String)} are memoized together with the keys they
+ * refer to. When the properties change, a new snapshot is built and keeps every memoized value
+ * whose keys still resolve to the same values, so only values referring to a changed key are
+ * resolved again. Keys which refer to themselves, directly or through other keys, fail with the
+ * complete chain of references once they are read.
+ */
+final class PropertySnapshot {
+
+    private static final int MAX_MEMOIZED_VALUES = 4096;
+    private static final int MAX_NESTING = 32;
+
+    private final Properties source;
+    private final long sourceModifications;
+    private final String environment;
+    private final Map<String, Object> raw = new HashMap<>();
+    private final Map<String, String> resolved = new HashMap<>();
+    private final Map<String, String> cycles = new HashMap<>();
+    private final ConcurrentHashMap<String, Resolution> memo = new ConcurrentHashMap<>();
+    private volatile boolean stale = false;
+
+    PropertySnapshot(Properties source, String environment, String environmentId, PropertySnapshot previous) {
+        this.source = source;
+        this.sourceModifications = modificationsOf(source);
+        this.environment = environment;
+
+        String envSuffix = "_" + environment;
+        String envIdSuffix = "_" + environmentId;
+        Set<String> keys = new HashSet<>();
+        for (Object key : source.keySet()) {
+            String sKey = key.toString();
+            keys.add(sKey);
+            // keys which exist only with an environment suffix are still found by their plain name
+            if (sKey.endsWith(envSuffix))
+                keys.add(sKey.substring(0, sKey.length() - envSuffix.length()));
+            if (sKey.endsWith(envIdSuffix))
+                keys.add(sKey.substring(0, sKey.length() - envIdSuffix.length()));
+        }
+        for (String key : keys) {
+            if (source.containsKey(key + envSuffix))
+                raw.put(key, source.get(key + envSuffix));
+            else if (source.containsKey(key + envIdSuffix))
+                raw.put(key, source.get(key + envIdSuffix));
+            else if (source.containsKey(key))
+                raw.put(key, source.get(key));
+        }
+        for (String key : raw.keySet()) {
+            try {
+                resolve(key, new ArrayList<>());
+            } catch (CyclicReferenceException e) {
+                cycles.put(key, e.getMessage());
+            }
+        }
+
+        if (previous != null) {
+            for (Map.Entry<String, Resolution> entry : previous.memo.entrySet()) {
+                if (isUnchanged(previous, entry.getValue().keys))
+                    memo.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /***
+     * Tells whether the snapshot still reflects the given properties
+     *
+     * @param props       - current properties of the thread
+     * @param environment - current environment of the thread
+     * @return true if the snapshot can be used
+     * @author vamsikrishna.kayyala
+     */
+    boolean isCurrent(Properties props, String environment) {
+        return !stale && source == props && sourceModifications == modificationsOf(props)
+                && Objects.equals(this.environment, environment);
+    }
+
+    /**
+     * RunConfiguration only keeps {@link TrackedProperties}, the size of any other properties is the
+     * best that can be compared
+     */
+    private static long modificationsOf(Properties props) {
+        return props instanceof TrackedProperties ? ((TrackedProperties) props).getModifications() : props.size();
+    }
+
+    /**
+     * Marks the snapshot as outdated, the properties it was built from have been modified
+     */
+    void invalidate() {
+        stale = true;
+    }
+
+    boolean containsKey(String key) {
+        return raw.containsKey(key);
+    }
+
+    /***
+     * Returns the resolved value of a key
+     *
+     * @param key - property name without environment suffix
+     * @return resolved value, or null if the key is not present or does not hold text
+     * @author vamsikrishna.kayyala
+     */
+    String get(String key) {
+        String value = resolved.get(key);
+        if (value == null && cycles.containsKey(key))
+            throw new RuntimeException(cycles.get(key));
+        return value;
+    }
+
+    /***
+     * Resolves the &lt;&lt;key&gt;&gt; placeholders of a value, the result is memoized until one of
+     * the keys it refers to changes
+     *
+     * @param data - value holding placeholders
+     * @return resolved value
+     * @author vamsikrishna.kayyala
+     */
+    String resolveString(String data) {
+        Resolution resolution = memo.get(data);
+        if (resolution != null)
+            return resolution.value;
+
+        Set<String> keys = new LinkedHashSet<>();
+        String value = data;
+        for (int depth = 0; ; depth++) {
+            PlaceholderTemplate template = PlaceholderTemplate.compile(value);
+            if (!template.hasPlaceholders())
+                break;
+            if (depth == MAX_NESTING)
+                throw new RuntimeException("Unable to resolve " + data + ", its placeholders keep resolving to other placeholders");
+            String next = template.render((key, defaultValue) -> {
+                keys.add(key);
+                if (raw.containsKey(key))
+                    return get(key);
+                System.out.println("There is no variable named " + key + " Run configurations");
+                return defaultValue;
+            });
+            if (next.equals(value))
+                break;
+            value = next;
+        }
+        if (memo.size() < MAX_MEMOIZED_VALUES)
+            memo.put(data, new Resolution(value, keys.toArray(new String[0])));
+        return value;
+    }
+
+    private String resolve(String key, List<String> path) {
+        String value = resolved.get(key);
+        if (value != null)
+            return value;
+        if (cycles.containsKey(key))
+            throw new CyclicReferenceException(cycles.get(key));
+        Object rawValue = raw.get(key);
+        if (!(rawValue instanceof String))
+            return null;
+        int index = path.indexOf(key);
+        if (index >= 0) {
+            List<String> cycle = new ArrayList<>(path.subList(index, path.size()));
+            cycle.add(key);
+            throw new CyclicReferenceException("Run configuration " + key + " refers to itself: " + String.join(" -> ", cycle));
+        }
+
+        path.add(key);
+        // nested placeholders are resolved as part of the keys they refer to, so a single render is enough
+        value = PlaceholderTemplate.compile((String) rawValue)
+                .render((name, defaultValue) -> raw.containsKey(name) ? resolve(name, path) : defaultValue);
+        path.remove(path.size() - 1);
+        resolved.put(key, value);
+        return value;
+    }
+
+    private boolean isUnchanged(PropertySnapshot previous, String[] keys) {
+        for (String key : keys) {
+            if (previous.raw.containsKey(key) != raw.containsKey(key)
+                    || !Objects.equals(previous.resolved.get(key), resolved.get(key))
+                    || !Objects.equals(previous.cycles.get(key), cycles.get(key)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Memoized value and the keys it was resolved from
+     */
+    private static final class Resolution {
+        private final String value;
+        private final String[] keys;
+
+        Resolution(String value, String[] keys) {
+            this.value = value;
+            this.keys = keys;
+        }
+    }
+
+    private static final class CyclicReferenceException extends RuntimeException {
+        CyclicReferenceException(String message) {
+            super(message);
+        }
+    }
+}
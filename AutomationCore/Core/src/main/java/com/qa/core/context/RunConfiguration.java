@@ -9,15 +9,18 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Component
 @Scope(value = "prototype")
 public class RunConfiguration {
-    private static final ThreadLocal<Boolean> isCreated = ThreadLocal.withInitial(() -> false);
     private static final ThreadLocal<Properties> tlProps = new ThreadLocal<>();
     private static final ThreadLocal<String> tlEnv = new ThreadLocal<>();
+    private static final ThreadLocal<PropertySnapshot> tlSnapshot = new ThreadLocal<>();
+    // true once the thread holds its own copy of the properties, anything else may be shared
+    private static final ThreadLocal<Boolean> tlOwned = ThreadLocal.withInitial(() -> false);
+    // loaded once per JVM and never modified, threads copy it on their first override
+    private static volatile Properties baseProps;
+    private static volatile PropertySnapshot baseSnapshot;
     private final CoreParameters parameters;
 
     public RunConfiguration(CoreParameters parameters) {
@@ -26,13 +29,42 @@ public class RunConfiguration {
 
     @PostConstruct
     public void init() {
-        if (!isCreated.get()) {
-            loadAllProperties();
+        if (props() == null) {
+            storeProps(getBaseProperties(), false);
             setEnv(getProperty("env"));
-            isCreated.set(true);
         }
     }
 
+    /**
+     * Returns the configuration shared by all the threads, the property files are read by the
+     * first thread only
+     */
+    private Properties getBaseProperties() {
+        Properties props = baseProps;
+        if (props == null) {
+            synchronized (RunConfiguration.class) {
+                if (baseProps == null)
+                    baseProps = loadAllProperties();
+                props = baseProps;
+            }
+        }
+        return props;
+    }
+
+    /**
+     * Returns the properties of the current thread for modification, a thread which does not hold
+     * its own copy yet gets one first. Ownership is tracked per thread rather than by comparing with
+     * the shared configuration, which writeProperty replaces while other threads still read it
+     */
+    private static Properties ownProps() {
+        Properties props = props();
+        if (!tlOwned.get()) {
+            props = (Properties) props.clone();
+            storeProps(props, true);
+        }
+        return props;
+    }
+
     public HashMap<String, String> getProperties(Set<String> keys) {
         var parameters = new HashMap<String, String>();
         for (String key : keys) {
@@ -70,15 +102,50 @@ public class RunConfiguration {
     }
 
     public void restoreProperties(Properties properties) {
-        storeProps(properties);
+        // the restored properties may be referenced elsewhere, they are copied on the next write
+        if (properties instanceof TrackedProperties)
+            storeProps(properties, false);
+        else
+            storeProps(new TrackedProperties(properties), true);
     }
 
     private static void setEnv(String env) {
         tlEnv.set(env);
+        invalidateSnapshot();
     }
 
-    private static void storeProps(Properties props) {
+    private static void storeProps(Properties props, boolean owned) {
         tlProps.set(props);
+        tlOwned.set(owned);
+        invalidateSnapshot();
+    }
+
+    /**
+     * The snapshot is kept, so the next one can reuse the resolved values which are not affected
+     */
+    private static void invalidateSnapshot() {
+        PropertySnapshot snapshot = tlSnapshot.get();
+        if (snapshot != null)
+            snapshot.invalidate();
+    }
+
+    /**
+     * Returns the resolved property snapshot of the current thread, the snapshot is rebuilt only
+     * after the properties or the environment have changed
+     */
+    private PropertySnapshot snapshot() {
+        Properties props = props();
+        boolean shared = props == baseProps;
+        PropertySnapshot snapshot = shared ? baseSnapshot : tlSnapshot.get();
+        if (snapshot == null || !snapshot.isCurrent(props, environment())) {
+            PropertySnapshot previous = snapshot != null ? snapshot : baseSnapshot;
+            snapshot = new PropertySnapshot(props, environment(), environmentId(), previous);
+            if (shared)
+                baseSnapshot = snapshot;
+            else
+                tlSnapshot.set(snapshot);
+        }
+        return snapshot;
     }
 
     private static Properties props() {
@@ -86,7 +153,9 @@ public class RunConfiguration {
     }
 
     public Properties getProps() {
-        return tlProps.get();
+        // callers may modify the returned properties, so the shared configuration is never handed out.
+        // Their modifications are counted by TrackedProperties and refresh the snapshot
+        return ownProps();
     }
 
     public String environment() {
@@ -102,19 +171,17 @@ public class RunConfiguration {
         return key;
     }
 
-    private synchronized void loadAllProperties() {
-        try {
-            synchronized(this) {
-                Properties props = new Properties();
-                FileInputStream Locator = new FileInputStream(parameters.getPropertyFilePath());
-                props.load(Locator);
-                addAdditionalProperties(props);
-                addBuildParameters(props);
-                storeProps(props);
-            }
+    private Properties loadAllProperties() {
+        Properties props = new TrackedProperties();
+        try (FileInputStream Locator = new FileInputStream(parameters.getPropertyFilePath())) {
+            props.load(Locator);
         } catch (IOException e) {
             System.out.println(e.getMessage());
+            return props;
         }
+        addAdditionalProperties(props);
+        addBuildParameters(props);
+        return props;
     }
 
     /***
@@ -144,9 +211,7 @@ public class RunConfiguration {
 
     private Properties loadCLIProperties(String file) {
         Properties props = new Properties();
-        try {
-            FileInputStream Locator;
-            Locator = new FileInputStream(file);
+        try (FileInputStream Locator = new FileInputStream(file)) {
             props.load(Locator);
         } catch (IOException e) {
             System.out.println(e.getMessage());
@@ -154,7 +219,7 @@ public class RunConfiguration {
         return props;
     }
 
-    private synchronized Properties addAdditionalProperties(Properties props) {
+    private Properties addAdditionalProperties(Properties props) {
         ConcurrentHashMap<String, String> propFiles = new ConcurrentHashMap<>();
         props.forEach((key, value) -> {
             if (key.toString().endsWith("_properties")) {
@@ -164,8 +229,7 @@ public class RunConfiguration {
         for(String propFile: propFiles.values()) {
             String path = parameters.getTargetFolderPath() + propFile;
             Properties additionalProps = new Properties();
-            try {
-                FileInputStream Locator = new FileInputStream(path);
+            try (FileInputStream Locator = new FileInputStream(path)) {
                 additionalProps.load(Locator);
                 for (Object newKey : additionalProps.keySet()) {
                     props.put(newKey, additionalProps.get(newKey));
@@ -178,33 +242,35 @@ public class RunConfiguration {
     }
 
     public boolean checkProperty(String key) {
-        if (props().containsKey(key + "_" + environment())) {
-            return true;
-        } else if (props().containsKey(key + "_" + environmentId())) {
-            return true;
-        } else return props().containsKey(key);
+        return snapshot().containsKey(key);
     }
 
     public String getProperty(String key) {
         String defaultValue = key;
-        if (key.contains("~~")) {
+        if (key.indexOf("~~") >= 0) {
             defaultValue = key.split("~~")[1];
             key = key.split("~~")[0];
         }
         return getProperty(key, defaultValue);
     }
 
+    /***
+     * Returns the value of a property for the current environment, key_env and key_envId take
+     * precedence over key. Values are served from a snapshot with the placeholders already
+     * resolved, so repeated reads cost a single map lookup
+     *
+     * @param key          - property name
+     * @param defaultValue - value to return when the property is not present
+     * @return resolved property value
+     * @author vamsikrishna.kayyala
+     */
     public String getProperty(String key, String defaultValue) {
-        if (props().containsKey(key + "_" + environment())) {
-            return resolveString(props().getProperty(key + "_" + environment()));
-        } else if (props().containsKey(key + "_" + environmentId())) {
-            return resolveString(props().getProperty(key + "_" + environmentId()));
-        } else if (props().containsKey(key)) {
-            return resolveString(props().getProperty(key));
-        } else {
-            System.out.println("There is no variable named " + key + " Run configurations");
-            return defaultValue;
-        }
+        PropertySnapshot snapshot = snapshot();
+        String value = snapshot.get(key);
+        if (value != null || snapshot.containsKey(key))
+            return value;
+        System.out.println("There is no variable named " + key + " Run configurations");
+        return defaultValue;
     }
 
     public Object get(String key) {
@@ -231,19 +297,19 @@ public class RunConfiguration {
     }
 
     private void _putProperty(String key, String value) {
-        Properties props = props();
+        Properties props = ownProps();
         props.put(key, value);
         System.out.println("added " + key + " with value " + value);
-        storeProps(props);
+        invalidateSnapshot();
         if (key.equalsIgnoreCase("env"))
             setEnv(value);
     }
 
     public void removeProperty(String key) {
-        Properties props = props();
+        Properties props = ownProps();
         props.remove(key);
         System.out.println("deleted " + key );
-        storeProps(props);
+        invalidateSnapshot();
     }
 
     /***
@@ -255,51 +321,51 @@ public class RunConfiguration {
      * @author vamsikrishna.kayyala
      */
     public void writeProperty(String key, String value) {
-        Properties props = props();
+        Properties props = ownProps();
         props.setProperty(key, value);
         saveProperties(props);
+        // threads started from now on read the written value as well
+        synchronized (RunConfiguration.class) {
+            if (baseProps != null) {
+                Properties base = (Properties) baseProps.clone();
+                base.setProperty(key, value);
+                baseProps = base;
+            }
+        }
         props.put(key, value);
         System.out.println("added " + key + " with value " + value);
-        storeProps(props);
+        invalidateSnapshot();
         if (key.equalsIgnoreCase("env"))
             setEnv(value);
 
     }
 
     private void saveProperties(Properties p) {
-        try {
-            FileOutputStream fr = new FileOutputStream(parameters.getPropertyFilePath());
+        try (FileOutputStream fr = new FileOutputStream(parameters.getPropertyFilePath())) {
             p.store(fr, "Properties");
-            fr.close();
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
     public void putProperty(String key, Object value) {
-        Properties props = props();
+        Properties props = ownProps();
         props.put(key, value);
-        storeProps(props);
+        invalidateSnapshot();
     }
 
+    /***
+     * Replaces the &lt;&lt;key&gt;&gt; placeholders of a value with their property values, a placeholder may
+     * hold a default value as &lt;&lt;key~~default&gt;&gt;. Results are memoized per value until one of the
+     * properties it refers to changes
+     *
+     * @param data - value holding placeholders
+     * @return resolved value
+     * @author vamsikrishna.kayyala
+     */
     public String resolveString(String data) {
-        List<String> lData = getListUsingRegEx(data, "<<(.+?)>>");
-        if (lData.size() == 0)
+        if (data.indexOf("<<") < 0)
             return data;
-        for (String key : lData) {
-            data = data.replace(key, getProperty(key.replace("<<", "").replace(">>", "")));
-        }
-        data = resolveString(data);
-        return data;
-    }
-
-    private List<String> getListUsingRegEx(String data, String sRegEx) {
-        var pattern = Pattern.compile(sRegEx);
-        Matcher matcher = pattern.matcher(data);
-        List<String> lReturn = new ArrayList<>();
-        while (matcher.find()) {
-            lReturn.add(matcher.group());
-        }
-        return lReturn;
+        return snapshot().resolveString(data);
     }
 }
@@ -0,0 +1,384 @@
+package com.qa.core.context;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Second tier of a cache region shared by all the JVMs of a machine, such as the test JVMs forked
+ * by gradle. Entries are kept in a memory-mapped file made of fixed size slots, the slots are split
+ * in stripes and every stripe is guarded by a lock within the JVM and by a file lock across the
+ * JVMs, so forks working on different keys rarely wait for each other.
+ *
+ * Every write gets a new stamp, {@link #compareAndSet(String, long, Object)} replaces an entry only
+ * when it still holds the expected stamp, so forks loading the same key agree on a single value.
+ * Values which are not serializable or do not fit in a slot are not shared.
+ */
+final class SharedCacheTier implements CacheTier {
+
+    private static final int MAGIC = 0x51414331;
+    private static final int HEADER_SIZE = 4096;
+    private static final int STRIPES = 64;
+    private static final int SLOTS_PER_STRIPE = 16;
+    private static final int SLOT_COUNT = STRIPES * SLOTS_PER_STRIPE;
+    private static final int SLOT_SIZE = 16 * 1024;
+    // one byte of the header is locked per stripe, the first bytes guard the initialization
+    private static final int INIT_LOCK_SIZE = 64;
+
+    private static final byte EMPTY = 0;
+    private static final byte USED = 1;
+    private static final int STATE = 0;
+    private static final int STAMP = 8;
+    private static final int EXPIRES_AT = 16;
+    private static final int KEY_HASH = 24;
+    private static final int KEY_LENGTH = 28;
+    private static final int VALUE_LENGTH = 32;
+    private static final int DATA = 36;
+
+    // a file is mapped once per JVM, every region of that file shares the mapping and its locks
+    private static final ConcurrentHashMap<Path, MappedFile> FILES = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final MappedFile file;
+    private final long timeToLiveMillis;
+    private boolean closed = false;
+
+    SharedCacheTier(Path path, Duration timeToLive) {
+        this.path = path.toAbsolutePath().normalize();
+        this.file = FILES.compute(this.path, (key, current) -> {
+            MappedFile mapped = current == null ? new MappedFile(key) : current;
+            mapped.users++;
+            return mapped;
+        });
+        this.timeToLiveMillis = timeToLive.toMillis();
+    }
+
+    /***
+     * Releases the file once no other tier of this JVM uses it, the channel is closed and the
+     * mapping is dropped so it can be garbage collected. The tier must not be used afterwards
+     *
+     * @author vamsikrishna.kayyala
+     */
+    synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        FILES.computeIfPresent(path, (key, current) -> {
+            if (current != file || --current.users > 0)
+                return current;
+            current.close();
+            return null;
+        });
+    }
+
+    @Override
+    public Entry get(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int stripe = stripeOf(key);
+        byte[] data = file.locked(stripe, () -> {
+            int slot = findSlot(stripe, key.hashCode(), keyBytes);
+            return slot < 0 ? null : readSlot(slot);
+        });
+        return data == null ? null : toEntry(key, data);
+    }
+
+    /***
+     * Returns the stamp of the current entry of a key, used to find out whether a copy of the entry
+     * is still up to date without reading its value
+     *
+     * @param key - cache key
+     * @return stamp of the entry, 0 if the key is not present or expired
+     * @author vamsikrishna.kayyala
+     */
+    long stampOf(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int stripe = stripeOf(key);
+        return file.locked(stripe, () -> {
+            int slot = findSlot(stripe, key.hashCode(), keyBytes);
+            return slot < 0 ? 0L : file.buffer.getLong(offsetOf(slot) + STAMP);
+        });
+    }
+
+    @Override
+    public Entry put(String key, Object value) {
+        return write(key, null, value);
+    }
+
+    /***
+     * Stores a value only if the current entry of the key still holds the expected stamp
+     *
+     * @param key           - cache key
+     * @param expectedStamp - stamp read along with the current entry, 0 if the key must not be present
+     * @param value         - value to store
+     * @return stored entry, or null if the key holds another entry. A value which cannot be shared
+     * removes the current entry and is returned with stamp 0
+     * @author vamsikrishna.kayyala
+     */
+    Entry compareAndSet(String key, long expectedStamp, Object value) {
+        return write(key, expectedStamp, value);
+    }
+
+    @Override
+    public void delete(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int stripe = stripeOf(key);
+        file.locked(stripe, () -> {
+            int slot = findSlot(stripe, key.hashCode(), keyBytes);
+            if (slot >= 0)
+                file.buffer.put(offsetOf(slot) + STATE, EMPTY);
+            return null;
+        });
+    }
+
+    @Override
+    public void clear() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            int first = stripe * SLOTS_PER_STRIPE;
+            file.locked(stripe, () -> {
+                for (int slot = first; slot < first + SLOTS_PER_STRIPE; slot++)
+                    file.buffer.put(offsetOf(slot) + STATE, EMPTY);
+                return null;
+            });
+        }
+    }
+
+    private Entry write(String key, Long expectedStamp, Object value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = serialize(value);
+        boolean shareable = valueBytes != null && DATA + keyBytes.length + valueBytes.length <= SLOT_SIZE;
+        long expiresAt = System.currentTimeMillis() + timeToLiveMillis;
+        long stamp = shareable ? nextStamp() : 0;
+        int hash = key.hashCode();
+        int stripe = stripeOf(key);
+        boolean written = file.locked(stripe, () -> {
+            int slot = findSlot(stripe, hash, keyBytes);
+            long currentStamp = slot < 0 ? 0 : file.buffer.getLong(offsetOf(slot) + STAMP);
+            if (expectedStamp != null && expectedStamp != currentStamp)
+                return false;
+            if (!shareable) {
+                // the other forks must not keep using the value which is being replaced
+                if (slot >= 0)
+                    file.buffer.put(offsetOf(slot) + STATE, EMPTY);
+                return true;
+            }
+            if (slot < 0)
+                slot = freeSlot(stripe);
+            writeSlot(slot, hash, keyBytes, valueBytes, expiresAt, stamp);
+            return true;
+        });
+        return written ? new Entry(key, value, expiresAt, stamp, valueBytes == null ? 0 : valueBytes.length) : null;
+    }
+
+    /**
+     * Returns the slot holding the live entry of a key, or -1. Must be called holding the stripe lock
+     */
+    private int findSlot(int stripe, int hash, byte[] keyBytes) {
+        ByteBuffer buffer = file.buffer;
+        long now = System.currentTimeMillis();
+        int first = stripe * SLOTS_PER_STRIPE;
+        for (int slot = first; slot < first + SLOTS_PER_STRIPE; slot++) {
+            int offset = offsetOf(slot);
+            if (buffer.get(offset + STATE) != USED || buffer.getInt(offset + KEY_HASH) != hash
+                    || buffer.getInt(offset + KEY_LENGTH) != keyBytes.length)
+                continue;
+            if (!Arrays.equals(read(offset + DATA, keyBytes.length), keyBytes))
+                continue;
+            if (buffer.getLong(offset + EXPIRES_AT) < now) {
+                buffer.put(offset + STATE, EMPTY);
+                return -1;
+            }
+            return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns an empty or expired slot of the stripe, or the slot expiring first when the stripe is
+     * full. Must be called holding the stripe lock
+     */
+    private int freeSlot(int stripe) {
+        ByteBuffer buffer = file.buffer;
+        long now = System.currentTimeMillis();
+        int first = stripe * SLOTS_PER_STRIPE;
+        int oldest = first;
+        for (int slot = first; slot < first + SLOTS_PER_STRIPE; slot++) {
+            int offset = offsetOf(slot);
+            long expiresAt = buffer.getLong(offset + EXPIRES_AT);
+            if (buffer.get(offset + STATE) != USED || expiresAt < now)
+                return slot;
+            if (expiresAt < buffer.getLong(offsetOf(oldest) + EXPIRES_AT))
+                oldest = slot;
+        }
+        return oldest;
+    }
+
+    private byte[] readSlot(int slot) {
+        int offset = offsetOf(slot);
+        int keyLength = file.buffer.getInt(offset + KEY_LENGTH);
+        int valueLength = file.buffer.getInt(offset + VALUE_LENGTH);
+        byte[] data = read(offset + DATA + keyLength, valueLength);
+        byte[] result = new byte[data.length + 16];
+        // the stamp and the expiry are read under the same lock as the value
+        ByteBuffer.wrap(result).putLong(file.buffer.getLong(offset + STAMP))
+                .putLong(file.buffer.getLong(offset + EXPIRES_AT)).put(data);
+        return result;
+    }
+
+    private void writeSlot(int slot, int hash, byte[] keyBytes, byte[] valueBytes, long expiresAt, long stamp) {
+        int offset = offsetOf(slot);
+        ByteBuffer buffer = file.buffer;
+        // the slot is marked as used last, a reader never sees a half written entry even if this JVM dies
+        buffer.put(offset + STATE, EMPTY);
+        buffer.putLong(offset + STAMP, stamp);
+        buffer.putLong(offset + EXPIRES_AT, expiresAt);
+        buffer.putInt(offset + KEY_HASH, hash);
+        buffer.putInt(offset + KEY_LENGTH, keyBytes.length);
+        buffer.putInt(offset + VALUE_LENGTH, valueBytes.length);
+        ByteBuffer data = buffer.duplicate();
+        data.position(offset + DATA);
+        data.put(keyBytes).put(valueBytes);
+        buffer.put(offset + STATE, USED);
+    }
+
+    private byte[] read(int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer data = file.buffer.duplicate();
+        data.position(position);
+        data.get(bytes);
+        return bytes;
+    }
+
+    private Entry toEntry(String key, byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        long stamp = buffer.getLong();
+        long expiresAt = buffer.getLong();
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data, 16, data.length - 16))) {
+            return new Entry(key, in.readObject(), expiresAt, stamp, data.length - 16);
+        } catch (IOException | ClassNotFoundException e) {
+            // written by a fork with other classes on its classpath, this fork treats it as a miss
+            return null;
+        }
+    }
+
+    private static byte[] serialize(Object value) {
+        if (!(value instanceof Serializable))
+            return null;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private static long nextStamp() {
+        long stamp;
+        do {
+            stamp = ThreadLocalRandom.current().nextLong();
+        } while (stamp == 0);
+        return stamp;
+    }
+
+    private static int stripeOf(String key) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), STRIPES);
+    }
+
+    private static int offsetOf(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * Mapping of a cache file along with the locks of its stripes
+     */
+    private static final class MappedFile {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        private final FileChannel channel;
+        // tiers of this JVM using the file, guarded by FILES
+        private int users = 0;
+
+        MappedFile(Path path) {
+            this.path = path;
+            for (int i = 0; i < STRIPES; i++)
+                locks[i] = new ReentrantLock();
+            try {
+                Files.createDirectories(path.getParent());
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to open the shared cache file " + path, e);
+            }
+            try {
+                try (FileLock ignored = channel.lock(0, INIT_LOCK_SIZE, false)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) SLOT_COUNT * SLOT_SIZE);
+                    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != SLOT_COUNT || buffer.getInt(8) != SLOT_SIZE) {
+                        for (int slot = 0; slot < SLOT_COUNT; slot++)
+                            buffer.put(offsetOf(slot) + STATE, EMPTY);
+                        buffer.putInt(4, SLOT_COUNT);
+                        buffer.putInt(8, SLOT_SIZE);
+                        buffer.putInt(0, MAGIC);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                try {
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw new RuntimeException("Unable to open the shared cache file " + path, e);
+            }
+        }
+
+        <T> T locked(int stripe, Supplier<T> action) {
+            ReentrantLock lock = locks[stripe];
+            lock.lock();
+            try (FileLock ignored = lockStripe(stripe)) {
+                return action.get();
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to lock the shared cache file " + path, e);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Polls the file lock of a stripe, file locks are owned by the process, so a blocking lock
+         * taken by one thread while another thread of the same process holds a lock another JVM waits
+         * for is reported as a deadlock. Stripes are held for a few microseconds only
+         */
+        private FileLock lockStripe(int stripe) throws IOException {
+            for (int attempt = 0; ; attempt++) {
+                FileLock fileLock = channel.tryLock(INIT_LOCK_SIZE + stripe, 1, false);
+                if (fileLock != null)
+                    return fileLock;
+                if (attempt < 100)
+                    Thread.onSpinWait();
+                else
+                    LockSupport.parkNanos(50_000);
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to close the shared cache file " + path, e);
+            }
+        }
+    }
+}
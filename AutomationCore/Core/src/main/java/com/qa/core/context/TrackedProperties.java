@@ -0,0 +1,236 @@
+package com.qa.core.context;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Properties which count their modifications, so a {@link PropertySnapshot} finds out that the
+ * properties it was built from have changed even when their size has not. Changes made through the
+ * key, value and entry views are counted as well.
+ */
+final class TrackedProperties extends Properties {
+
+    private static final long serialVersionUID = 1L;
+
+    private volatile long modifications = 0;
+
+    TrackedProperties() {
+        super();
+    }
+
+    TrackedProperties(Properties source) {
+        super();
+        super.putAll(source);
+    }
+
+    long getModifications() {
+        return modifications;
+    }
+
+    private void modified() {
+        modifications++;
+    }
+
+    @Override
+    public synchronized Object put(Object key, Object value) {
+        modified();
+        return super.put(key, value);
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        modified();
+        return super.remove(key);
+    }
+
+    @Override
+    public synchronized boolean remove(Object key, Object value) {
+        modified();
+        return super.remove(key, value);
+    }
+
+    @Override
+    public synchronized void putAll(Map<?, ?> t) {
+        modified();
+        super.putAll(t);
+    }
+
+    @Override
+    public synchronized void clear() {
+        modified();
+        super.clear();
+    }
+
+    @Override
+    public synchronized Object putIfAbsent(Object key, Object value) {
+        modified();
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public synchronized Object replace(Object key, Object value) {
+        modified();
+        return super.replace(key, value);
+    }
+
+    @Override
+    public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+        modified();
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+        modified();
+        super.replaceAll(function);
+    }
+
+    @Override
+    public synchronized Object compute(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        modified();
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public synchronized Object computeIfAbsent(Object key, Function<? super Object, ?> mappingFunction) {
+        modified();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public synchronized Object computeIfPresent(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        modified();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public synchronized Object merge(Object key, Object value, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        modified();
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public Set<Object> keySet() {
+        return new TrackedSet<>(super.keySet());
+    }
+
+    @Override
+    public Collection<Object> values() {
+        Collection<Object> values = super.values();
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return new TrackedIterator<>(values.iterator());
+            }
+
+            @Override
+            public int size() {
+                return values.size();
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                modified();
+                return values.remove(o);
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<Object, Object>> entrySet() {
+        Set<Map.Entry<Object, Object>> entries = super.entrySet();
+        return new TrackedSet<>(entries) {
+            @Override
+            public Iterator<Map.Entry<Object, Object>> iterator() {
+                Iterator<Map.Entry<Object, Object>> iterator = super.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<Object, Object> next() {
+                        Map.Entry<Object, Object> entry = iterator.next();
+                        return new AbstractMap.SimpleEntry<>(entry) {
+                            @Override
+                            public Object setValue(Object value) {
+                                modified();
+                                super.setValue(value);
+                                return entry.setValue(value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * View of the keys or entries, removals through the view or its iterator are counted
+     */
+    private class TrackedSet<E> extends AbstractSet<E> {
+        private final Set<E> view;
+
+        TrackedSet(Set<E> view) {
+            this.view = view;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new TrackedIterator<>(view.iterator());
+        }
+
+        @Override
+        public int size() {
+            return view.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return view.contains(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            modified();
+            return view.remove(o);
+        }
+
+        @Override
+        public void clear() {
+            modified();
+            view.clear();
+        }
+    }
+
+    private class TrackedIterator<E> implements Iterator<E> {
+        private final Iterator<E> iterator;
+
+        TrackedIterator(Iterator<E> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public E next() {
+            return iterator.next();
+        }
+
+        @Override
+        public void remove() {
+            modified();
+            iterator.remove();
+        }
+    }
+}
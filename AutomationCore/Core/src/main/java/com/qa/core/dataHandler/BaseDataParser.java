@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public interface BaseDataParser {
     static Map<String, DataParser> DataParsers() {
@@ -21,6 +22,16 @@ public interface BaseDataParser {
 
     List<LinkedHashMap<String, String>> processData(List<LinkedHashMap<String, String>> data);
 
+    LinkedHashMap<String, String> processRow(LinkedHashMap<String, String> row);
+
+    boolean matches(LinkedHashMap<String, String> row, String column, String value);
+
+    boolean matches(LinkedHashMap<String, String> row, FilterExpression filter);
+
+    LinkedHashMap<String, String> processIfMatches(LinkedHashMap<String, String> row, FilterExpression filter);
+
+    List<LinkedHashMap<String, String>> processMatching(Stream<LinkedHashMap<String, String>> data, FilterExpression filter);
+
     List<LinkedHashMap<String, String>> filterData(List<LinkedHashMap<String, String>> data,
                                                    Map<String, String> filters);
 
@@ -31,10 +42,26 @@ public interface BaseDataParser {
     List<LinkedHashMap<String, String>> filterData(List<LinkedHashMap<String, String>> data,
                                                    Predicate<LinkedHashMap<String, String>> filter);
 
+    List<LinkedHashMap<String, String>> filterData(Stream<LinkedHashMap<String, String>> data,
+                                                   Map<String, String> filters);
+
+    List<LinkedHashMap<String, String>> filterData(Stream<LinkedHashMap<String, String>> data, String[] filters);
+
+    List<LinkedHashMap<String, String>> filterData(Stream<LinkedHashMap<String, String>> data, String column, String value);
+
+    List<LinkedHashMap<String, String>> filterData(Stream<LinkedHashMap<String, String>> data,
+                                                   Predicate<LinkedHashMap<String, String>> filter);
+
+    List<LinkedHashMap<String, String>> filterData(Stream<LinkedHashMap<String, String>> data, FilterExpression filter);
+
     List<LinkedHashMap<String, String>> getUniqueColumnValues(String column, List<LinkedHashMap<String, String>> results);
 
+    List<LinkedHashMap<String, String>> distinct(Stream<LinkedHashMap<String, String>> data, List<String> columns);
+
     Optional<LinkedHashMap<String, String>> readRandomRow(List<LinkedHashMap<String, String>> data);
 
+    Optional<LinkedHashMap<String, String>> sampleRow(Stream<LinkedHashMap<String, String>> data);
+
     void saveData(String sKey, List<LinkedHashMap<String, String>> data);
 
     List<LinkedHashMap<String, String>> getSavedData(String sKey);
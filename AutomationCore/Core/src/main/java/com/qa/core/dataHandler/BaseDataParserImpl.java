@@ -4,11 +4,15 @@ import com.qa.core.context.RunConfiguration;
 import com.qa.core.dataLib.DataProcessor;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 class BaseDataParserImpl<T extends BaseDataParserImpl<T>> implements BaseDataParser {
 
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 10000;
+
     protected static ThreadLocal<Map<String, DataParser>> staticDataParsers = ThreadLocal.withInitial(HashMap::new);
 
     protected static ThreadLocal<Map<String, Map<String, List<LinkedHashMap<String, String>>>>> staticDataParserData
@@ -17,6 +21,11 @@ class BaseDataParserImpl<T extends BaseDataParserImpl<T>> implements BaseDataPar
     public String sWBPath;
     public String sWSName;
     protected Boolean processData = true;
+    protected boolean columnarData = false;
+    protected boolean snapshotData = false;
+    protected Long randomSeed = null;
+    protected int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private Random random;
 
     private final RunConfiguration config;
     private final DataProcessor dp;
@@ -26,22 +35,80 @@ class BaseDataParserImpl<T extends BaseDataParserImpl<T>> implements BaseDataPar
         this.dp = dp;
     }
 
+    /***
+     * Reads a boolean run configuration which enables an optional parser behaviour
+     *
+     * @param property - run configuration name
+     * @return true only when the property is set to true
+     * @author vamsikrishna.kayyala
+     */
+    protected boolean isEnabled(String property) {
+        return Boolean.parseBoolean(config.getProperty(property, "false"));
+    }
+
+    /***
+     * Reads a numeric run configuration of an optional parser behaviour
+     *
+     * @param property     - run configuration name
+     * @param defaultValue - value to use when the property is not set
+     * @return configured number or the default value
+     * @author vamsikrishna.kayyala
+     */
+    protected int getIntProperty(String property, int defaultValue) {
+        String value = config.getProperty(property, String.valueOf(defaultValue));
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /***
+     * Reads the seed of random row selection, set data_random_seed to pick the same rows on
+     * every run while debugging
+     *
+     * @return configured seed, or null when rows should be picked at random
+     * @author vamsikrishna.kayyala
+     */
+    protected Long getRandomSeed() {
+        String value = config.getProperty("data_random_seed", "");
+        return value == null || value.isBlank() ? null : Long.parseLong(value.trim());
+    }
+
+    /**
+     * Returns the random source of this parser, seeded parsers repeat the same sequence for the
+     * thread owning them
+     */
+    private Random getRandom() {
+        if (randomSeed == null)
+            return ThreadLocalRandom.current();
+        if (random == null)
+            random = new Random(randomSeed);
+        return random;
+    }
+
     @Override
     public int getRandomNumber(int min, int max) {
-        return (int) ((Math.random() * (max - min)) + min);
+        return (int) ((getRandom().nextDouble() * (max - min)) + min);
+    }
+
+    /***
+     * Reads the number of rows above which the rows are prepared for processing on a parallel
+     * stream, set through parallel_processing_threshold run configuration
+     *
+     * @return configured threshold or the default threshold
+     * @author vamsikrishna.kayyala
+     */
+    protected int getParallelThreshold() {
+        return getIntProperty("parallel_processing_threshold", DEFAULT_PARALLEL_THRESHOLD);
     }
 
     @Override
     public List<LinkedHashMap<String, String>> processData(List<LinkedHashMap<String, String>> data) {
         if (processData) {
+            // rows only capture their placeholder cells here, no run configuration is read, so
+            // large sheets can be prepared on the common pool
+            if (parallelThreshold > 0 && data.size() > parallelThreshold)
+                return data.parallelStream().map(this::processRow).collect(Collectors.toList());
             List<LinkedHashMap<String, String>> processedData = new ArrayList<>();
             for (LinkedHashMap<String, String> row : data) {
-                LinkedHashMap<String, String> newRow = new LinkedHashMap<String, String>();
-                for (String key : row.keySet()) {
-                    dp.init(row.get(key));
-                    newRow.put(key, config.resolveString(dp.parse()));
-                }
-                processedData.add(newRow);
+                processedData.add(processRow(row));
             }
             return processedData;
         } else {
@@ -49,66 +116,285 @@ class BaseDataParserImpl<T extends BaseDataParserImpl<T>> implements BaseDataPar
         }
     }
 
+    @Override
+    public LinkedHashMap<String, String> processRow(LinkedHashMap<String, String> row) {
+        return processRow(row, Collections.emptyMap());
+    }
+
+    private LinkedHashMap<String, String> processRow(LinkedHashMap<String, String> row, Map<String, String> resolved) {
+        // rows which are already processed resolve their own cells when they are read
+        if (!processData || row instanceof LazyRow)
+            return row;
+        return new LazyRow(row, this::processValue, resolved);
+    }
+
+    private String processValue(String value) {
+        // the data processor keeps no state between the calls, cells of any thread are parsed concurrently
+        return config.resolveString(dp.parse(value));
+    }
+
+    /***
+     * Compares a cell of a row with the filter value. Cells of unprocessed rows are compared on
+     * their raw value, only cells holding placeholders are processed for the comparison, so rows
+     * can be filtered before they are processed
+     *
+     * @param row    - processed or unprocessed row
+     * @param column - column name to compare
+     * @param value  - filter value
+     * @return true if the row has the column and its processed value equals the filter value
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public boolean matches(LinkedHashMap<String, String> row, String column, String value) {
+        String cell = resolveCell(row, row.get(column));
+        return cell != null && cell.equals(value);
+    }
+
+    /***
+     * Tests a row against a compiled filter, cells are compared the same way as
+     * {@link #matches(LinkedHashMap, String, String)} does
+     *
+     * @param row    - processed or unprocessed row
+     * @param filter - compiled filter
+     * @return true if the row satisfies the filter
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public boolean matches(LinkedHashMap<String, String> row, FilterExpression filter) {
+        List<String> columns = filter.getColumns();
+        return filter.test(column -> resolveCell(row, row.get(columns.get(column))));
+    }
+
+    /***
+     * Tests an unprocessed row against a compiled filter and processes it if it matches. The cells
+     * resolved for the comparison keep their resolved value in the processed row, so a cell holding
+     * placeholders is resolved once and the row holds the value it was matched on
+     *
+     * @param row    - processed or unprocessed row
+     * @param filter - compiled filter
+     * @return processed row, or null if the row does not satisfy the filter
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public LinkedHashMap<String, String> processIfMatches(LinkedHashMap<String, String> row, FilterExpression filter) {
+        if (!processData || row instanceof LazyRow)
+            return matches(row, filter) ? row : null;
+        List<String> columns = filter.getColumns();
+        Map<String, String> resolved = new HashMap<>();
+        boolean matches = filter.test(column -> resolved.computeIfAbsent(columns.get(column), name -> {
+            String cell = row.get(name);
+            return cell == null ? null : filterValue(cell);
+        }));
+        return matches ? processRow(row, resolved) : null;
+    }
+
+    /***
+     * Reads the rows of a stream satisfying a compiled filter, see
+     * {@link #processIfMatches(LinkedHashMap, FilterExpression)}. The stream is closed once it is consumed
+     *
+     * @param data   - stream of unprocessed rows
+     * @param filter - compiled filter
+     * @return processed rows satisfying the filter
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public List<LinkedHashMap<String, String>> processMatching(Stream<LinkedHashMap<String, String>> data, FilterExpression filter) {
+        try (data) {
+            return data.map(row -> processIfMatches(row, filter)).filter(Objects::nonNull).collect(Collectors.toList());
+        }
+    }
+
+    private String resolveCell(LinkedHashMap<String, String> row, String cell) {
+        return cell == null || row instanceof LazyRow ? cell : filterValue(cell);
+    }
+
+    /***
+     * Returns the cell value a filter is compared with, cells holding placeholders are processed
+     *
+     * @param cell - raw cell value
+     * @return value to compare
+     * @author vamsikrishna.kayyala
+     */
+    String filterValue(String cell) {
+        if (processData && (cell.contains("$$") || cell.contains("<<")))
+            return processValue(cell);
+        return cell;
+    }
+
     @Override
     public List<LinkedHashMap<String, String>> filterData(List<LinkedHashMap<String, String>> data,
                                                           Map<String, String> filters) {
-        Predicate<LinkedHashMap<String, String>> filterCondition = map -> {
-            for (Map.Entry<String, String> entry : filters.entrySet()) {
-                if (!map.containsKey(entry.getKey()) || !map.get(entry.getKey()).equals(entry.getValue())) {
-                    return false;
-                }
-            }
-            return true;
-        };
-        return filterData(data, filterCondition);
+        return filterData(data.stream(), filters);
     }
 
     @Override
     public List<LinkedHashMap<String, String>> filterData(List<LinkedHashMap<String, String>> data, String[] filters) {
-        Predicate<LinkedHashMap<String, String>> filterCondition = map -> {
-            for (String filter : filters) {
-                String[] keyValue = filter.split("==");
-                if (keyValue.length != 2) {
-                    throw new IllegalArgumentException("Invalid filter format: " + filter);
-                }
-                String key = keyValue[0];
-                String value = keyValue[1];
-                if (!map.containsKey(key) || !map.get(key).equals(value)) {
-                    return false;
-                }
-            }
-            return true;
-        };
-        return filterData(data, filterCondition);
+        return filterData(data.stream(), filters);
     }
 
     @Override
     public List<LinkedHashMap<String, String>> filterData(List<LinkedHashMap<String, String>> data, String column, String value) {
+        return filterData(data.stream(), column, value);
+    }
+
+    @Override
+    public List<LinkedHashMap<String, String>> filterData(List<LinkedHashMap<String, String>> data,
+                                                          Predicate<LinkedHashMap<String, String>> filter) {
+        return filterData(data.stream(), filter);
+    }
+
+    @Override
+    public List<LinkedHashMap<String, String>> filterData(Stream<LinkedHashMap<String, String>> data,
+                                                          Map<String, String> filters) {
+        return filterData(data, FilterExpression.equalTo(filters));
+    }
+
+    @Override
+    public List<LinkedHashMap<String, String>> filterData(Stream<LinkedHashMap<String, String>> data, String[] filters) {
+        return filterData(data, FilterExpression.compile(filters));
+    }
+
+    @Override
+    public List<LinkedHashMap<String, String>> filterData(Stream<LinkedHashMap<String, String>> data, FilterExpression filter) {
+        return filterData(data, (Predicate<LinkedHashMap<String, String>>) row -> matches(row, filter));
+    }
+
+    @Override
+    public List<LinkedHashMap<String, String>> filterData(Stream<LinkedHashMap<String, String>> data, String column, String value) {
         Predicate<LinkedHashMap<String, String>> filterCondition =
-                map -> map.containsKey(column) && map.get(column).equals(value);
+                map -> matches(map, column, value);
         return filterData(data, filterCondition);
     }
 
     @Override
-    public List<LinkedHashMap<String, String>> filterData(List<LinkedHashMap<String, String>> data,
+    public List<LinkedHashMap<String, String>> filterData(Stream<LinkedHashMap<String, String>> data,
                                                           Predicate<LinkedHashMap<String, String>> filter) {
-        return data.stream().filter(filter).collect(Collectors.toList());
+        // closing the stream so that any streamed worksheet is released once filtering is done
+        try (data) {
+            return data.filter(filter).collect(Collectors.toList());
+        }
+    }
+
+    /***
+     * Reads the rows matching all the filters through the column indexes of the sheet data,
+     * instead of processing and scanning every row of the sheet. Only the most selective
+     * indexed column is used to find the candidate rows, remaining filters are applied on the
+     * raw candidates
+     *
+     * @param sheetData - parsed sheet data to look up
+     * @param filters   - map containing column name and values, used for filtering
+     * @return processed rows matching the filters, or null if none of the filter columns can be
+     *         looked up through an index and the rows have to be scanned
+     * @author vamsikrishna.kayyala
+     */
+    List<LinkedHashMap<String, String>> lookup(SheetData sheetData, Map<String, String> filters) {
+        int[] candidates = null;
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            SheetData.ColumnIndex index = sheetData.getIndex(filter.getKey());
+            // processed values of placeholder cells are known only after processing, such columns are scanned
+            if (processData && index.hasPlaceholders())
+                continue;
+            int[] rows = index.find(filter.getValue());
+            if (candidates == null || rows.length < candidates.length)
+                candidates = rows;
+        }
+        if (candidates == null)
+            return null;
+        return processMatching(Arrays.stream(candidates).mapToObj(sheetData::getRow), FilterExpression.equalTo(filters));
+    }
+
+    /***
+     * Reads the rows satisfying a compiled filter with a single scan of the sheet data, the rows
+     * are filtered on their raw values and only the matching rows are copied. The cells resolved
+     * for the comparison are kept by the processed rows
+     *
+     * @param sheetData - parsed sheet data to scan
+     * @param filter    - compiled filter
+     * @return processed rows satisfying the filter
+     * @author vamsikrishna.kayyala
+     */
+    List<LinkedHashMap<String, String>> scan(SheetData sheetData, FilterExpression filter) {
+        return sheetData.filterRows(filter, this::filterValue, this::processRow);
     }
 
     @Override
     public List<LinkedHashMap<String, String>> getUniqueColumnValues(String column, List<LinkedHashMap<String, String>> results) {
-        List<LinkedHashMap<String, String>> lReturn =
-                new ArrayList<>();
-        for(LinkedHashMap<String, String> row : results) {
-            LinkedHashMap<String, String> newRow = new LinkedHashMap<>();
-            newRow.put(column, row.get(column));
-            if (!lReturn.contains(newRow)) {
-                lReturn.add(newRow);
-            }
+        return distinct(results.stream(), Collections.singletonList(column));
+    }
+
+    /***
+     * Returns the distinct combinations of the given columns in a single pass over the rows. Rows
+     * are deduplicated on their raw key cells through a hash set, and only the key cells of the first
+     * row of every raw key are processed
+     *
+     * @param data    - stream of processed or unprocessed rows
+     * @param columns - column names which together make the distinct key
+     * @return distinct column value combinations in the order they were first seen
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public List<LinkedHashMap<String, String>> distinct(Stream<LinkedHashMap<String, String>> data, List<String> columns) {
+        Map<List<String>, LinkedHashMap<String, String>> firstRows = new LinkedHashMap<>();
+        try (data) {
+            data.forEach(row -> {
+                String[] rawKey = new String[columns.size()];
+                for (int i = 0; i < rawKey.length; i++)
+                    rawKey[i] = rawCell(row, columns.get(i));
+                firstRows.putIfAbsent(Arrays.asList(rawKey), row);
+            });
+        }
+        Set<List<String>> keys = new HashSet<>();
+        List<LinkedHashMap<String, String>> lReturn = new ArrayList<>();
+        for (LinkedHashMap<String, String> row : firstRows.values()) {
+            String[] key = new String[columns.size()];
+            for (int i = 0; i < key.length; i++)
+                key[i] = resolveCell(row, row.get(columns.get(i)));
+            // different raw values may still be processed into the same value
+            addDistinct(keys, lReturn, columns, key);
+        }
+        return lReturn;
+    }
+
+    /***
+     * Returns the distinct combinations of the given columns among the rows satisfying a filter,
+     * the cells are read from the sheet data without building the rows. Rows are deduplicated on
+     * their raw cells, only the cells of the distinct raw keys are processed
+     *
+     * @param sheetData - parsed sheet data to scan
+     * @param filter    - compiled filter
+     * @param columns   - column names which together make the distinct key
+     * @return distinct column value combinations in the order they were first seen
+     * @author vamsikrishna.kayyala
+     */
+    List<LinkedHashMap<String, String>> distinct(SheetData sheetData, FilterExpression filter, List<String> columns) {
+        Set<List<String>> rawKeys = new LinkedHashSet<>();
+        for (int row : sheetData.filter(filter, this::filterValue))
+            rawKeys.add(Arrays.asList(sheetData.getValues(row, columns)));
+        Set<List<String>> keys = new HashSet<>();
+        List<LinkedHashMap<String, String>> lReturn = new ArrayList<>();
+        for (List<String> rawKey : rawKeys) {
+            String[] key = new String[rawKey.size()];
+            for (int i = 0; i < key.length; i++)
+                key[i] = rawKey.get(i) == null ? null : filterValue(rawKey.get(i));
+            addDistinct(keys, lReturn, columns, key);
         }
         return lReturn;
     }
-    
+
+    private static String rawCell(LinkedHashMap<String, String> row, String column) {
+        return row instanceof LazyRow ? ((LazyRow) row).getUnresolved(column) : row.get(column);
+    }
+
+    private static void addDistinct(Set<List<String>> keys, List<LinkedHashMap<String, String>> lReturn,
+                                    List<String> columns, String[] key) {
+        if (keys.add(Arrays.asList(key))) {
+            LinkedHashMap<String, String> newRow = new LinkedHashMap<>();
+            for (int i = 0; i < key.length; i++)
+                newRow.put(columns.get(i), key[i]);
+            lReturn.add(newRow);
+        }
+    }
+
     @Override
     public Optional<LinkedHashMap<String, String>> readRandomRow(List<LinkedHashMap<String, String>> data) {
         if (data.size() == 0) {
@@ -121,6 +407,53 @@ class BaseDataParserImpl<T extends BaseDataParserImpl<T>> implements BaseDataPar
         return Optional.ofNullable(data.get(randNumber));
     }
 
+    /***
+     * Picks a random row of a stream with reservoir sampling, so the rows are never collected
+     * and only the selected row is processed. The stream is closed once it is consumed
+     *
+     * @param data - stream of unprocessed rows
+     * @return processed random row, or empty if the stream has no rows
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public Optional<LinkedHashMap<String, String>> sampleRow(Stream<LinkedHashMap<String, String>> data) {
+        LinkedHashMap<String, String> selected;
+        try (data) {
+            selected = sample(data.iterator());
+        }
+        return selected == null ? Optional.empty() : Optional.of(processRow(selected));
+    }
+
+    /***
+     * Picks a random row satisfying a filter from the sheet data, the matching rows are found
+     * with a single scan and only the selected row is copied and processed. The row is sampled the
+     * same way as a streamed row, so a seeded parser picks the same row on either path
+     *
+     * @param sheetData - parsed sheet data to scan
+     * @param filter    - compiled filter
+     * @return processed random row, or empty if no row satisfies the filter
+     * @author vamsikrishna.kayyala
+     */
+    Optional<LinkedHashMap<String, String>> sampleRow(SheetData sheetData, FilterExpression filter) {
+        Integer selected = sample(Arrays.stream(sheetData.filter(filter, this::filterValue)).iterator());
+        return selected == null ? Optional.empty() : Optional.of(processRow(sheetData.getRow(selected)));
+    }
+
+    /**
+     * Reservoir sampling, every item replaces the selection with a probability of 1 / items seen so far
+     */
+    private <E> E sample(Iterator<E> items) {
+        Random random = getRandom();
+        E selected = null;
+        int seen = 0;
+        while (items.hasNext()) {
+            E item = items.next();
+            if (random.nextInt(++seen) == 0)
+                selected = item;
+        }
+        return selected;
+    }
+
     @Override
     public void saveData(String sKey, List<LinkedHashMap<String, String>> data) {
         Map<String, Map<String, List<LinkedHashMap<String, String>>>> excelData = staticDataParserData.get();
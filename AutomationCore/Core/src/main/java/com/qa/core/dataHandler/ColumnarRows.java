@@ -0,0 +1,130 @@
+package com.qa.core.dataHandler;
+
+import java.util.*;
+
+/**
+ * Column oriented, dictionary encoded storage of sheet rows. Header names are interned once,
+ * every column keeps its distinct values in a dictionary and stores one int code per row,
+ * so a value repeated across thousands of rows is held in memory only once.
+ *
+ * The rows are exposed as a read only list of {@link LinkedHashMap} views, a view is built
+ * only when the row is accessed and every access returns a new map owned by the caller.
+ */
+final class ColumnarRows extends AbstractList<LinkedHashMap<String, String>> implements RandomAccess {
+
+    private static final int MISSING = -1;
+    private static final String ROW_NUMBER = "ROW_NUMBER";
+
+    private final String[] headers;
+    private final String[][] dictionaries;
+    private final int[][] codes;
+    private final int[] rowNumbers;
+    private final int size;
+
+    private ColumnarRows(String[] headers, String[][] dictionaries, int[][] codes, int[] rowNumbers, int size) {
+        this.headers = headers;
+        this.dictionaries = dictionaries;
+        this.codes = codes;
+        this.rowNumbers = rowNumbers;
+        this.size = size;
+    }
+
+    @Override
+    public LinkedHashMap<String, String> get(int index) {
+        Objects.checkIndex(index, size);
+        LinkedHashMap<String, String> row = new LinkedHashMap<>(headers.length * 2);
+        for (int column = 0; column < headers.length; column++) {
+            int code = codes[column][index];
+            if (code != MISSING)
+                row.put(headers[column], dictionaries[column][code]);
+        }
+        if (rowNumbers[index] != MISSING)
+            row.put(ROW_NUMBER, String.valueOf(rowNumbers[index]));
+        return row;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /***
+     * Reads a single cell without building the row view
+     *
+     * @param index  - row index within the sheet data
+     * @param column - column ordinal within the headers
+     * @return cell value or null if the row does not have a value for the column
+     * @author vamsikrishna.kayyala
+     */
+    String getValue(int index, int column) {
+        int code = codes[column][index];
+        return code == MISSING ? null : dictionaries[column][code];
+    }
+
+    int getColumnIndex(String header) {
+        for (int column = 0; column < headers.length; column++) {
+            if (headers[column].equals(header))
+                return column;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Encodes rows one at a time, so the complete sheet is never held as maps while it is loaded
+     */
+    static final class Builder {
+        private final String[] headers;
+        private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+        private final int[][] codes;
+        private int[] rowNumbers = new int[16];
+        private int size = 0;
+
+        Builder(List<String> headers) {
+            this.headers = new String[headers.size()];
+            this.codes = new int[headers.size()][16];
+            for (int column = 0; column < headers.size(); column++) {
+                this.headers[column] = headers.get(column).intern();
+                dictionaries.add(new HashMap<>());
+            }
+        }
+
+        Builder add(Map<String, String> row) {
+            if (size == rowNumbers.length) {
+                rowNumbers = Arrays.copyOf(rowNumbers, size * 2);
+                for (int column = 0; column < codes.length; column++)
+                    codes[column] = Arrays.copyOf(codes[column], size * 2);
+            }
+            for (int column = 0; column < headers.length; column++) {
+                String value = row.get(headers[column]);
+                if (value == null) {
+                    codes[column][size] = MISSING;
+                } else {
+                    Map<String, Integer> dictionary = dictionaries.get(column);
+                    Integer code = dictionary.get(value);
+                    if (code == null) {
+                        code = dictionary.size();
+                        dictionary.put(value, code);
+                    }
+                    codes[column][size] = code;
+                }
+            }
+            String rowNumber = row.get(ROW_NUMBER);
+            rowNumbers[size] = rowNumber == null ? MISSING : Integer.parseInt(rowNumber);
+            size++;
+            return this;
+        }
+
+        ColumnarRows build() {
+            String[][] values = new String[headers.length][];
+            int[][] trimmedCodes = new int[headers.length][];
+            for (int column = 0; column < headers.length; column++) {
+                Map<String, Integer> dictionary = dictionaries.get(column);
+                values[column] = new String[dictionary.size()];
+                for (Map.Entry<String, Integer> entry : dictionary.entrySet())
+                    values[column][entry.getValue()] = entry.getKey();
+                trimmedCodes[column] = Arrays.copyOf(codes[column], size);
+            }
+            return new ColumnarRows(headers, values, trimmedCodes, Arrays.copyOf(rowNumbers, size), size);
+        }
+    }
+}
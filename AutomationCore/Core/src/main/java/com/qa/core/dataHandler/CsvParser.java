@@ -1,8 +1,8 @@
 package com.qa.core.dataHandler;
 
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
 import com.qa.core.context.RunConfiguration;
+import com.qa.core.dataLib.CsvUrlReader;
+import com.qa.core.dataLib.CsvWriter;
 import com.qa.core.dataLib.DataProcessor;
 import com.qa.core.util.BeanUtil;
 import org.apache.commons.io.FileUtils;
@@ -11,15 +11,15 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.InputStreamReader;
 import java.net.URL;
-import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Component
 @Lazy
@@ -27,8 +27,8 @@ import java.util.Map;
 public class CsvParser extends BaseDataParserImpl<CsvParser> implements DataParser {
 
     public List<String> headers;
-    private List<LinkedHashMap<String, String>> data;
-    private List<String[]> allLines;
+    private URL url;
+    private int urlRetries;
 
     private final RunConfiguration config;
     private final DataProcessor dp;
@@ -48,16 +48,12 @@ public class CsvParser extends BaseDataParserImpl<CsvParser> implements DataPars
             var csv = getNewInstance();
             csv.sWBPath = url.toString();
             csv.sWSName = "";
-            csv.headers = new ArrayList<>();
-            csv.data = new ArrayList<>();
-            try {
-                URLConnection urlConn = url.openConnection();
-                InputStreamReader inputCSV = new InputStreamReader((urlConn).getInputStream());
-                var csvReader = new CSVReaderBuilder(inputCSV).build();
-                readCsv(csv, csvReader);
-            } catch (Exception e) {
-                throw new RuntimeException("Unable to read the csv file: " + sWBPath, e);
-            }
+            csv.url = url;
+            csv.urlRetries = getIntProperty("csv_url_retries", 3);
+            csv.columnarData = isEnabled("columnar_sheet_data");
+            csv.randomSeed = getRandomSeed();
+            csv.parallelThreshold = getParallelThreshold();
+            csv.headers = new ArrayList<>(csv.getSheetData().getHeaders());
             BaseDataParser.storeDataParser(url.toString(), csv);
             return csv;
         }
@@ -70,42 +66,81 @@ public class CsvParser extends BaseDataParserImpl<CsvParser> implements DataPars
             var csv = getNewInstance();
             csv.sWBPath = filePath;
             csv.sWSName = sheetName;
-            csv.headers = new ArrayList<>();
-            csv.data = new ArrayList<>();
-            try {
-                var csvReader = CsvStatic.getWorkbook(filePath);
-                readCsv(csv, csvReader);
-            } catch (Exception e) {
-                throw new RuntimeException("Unable to read the csv file: " + filePath, e);
-            }
+            csv.columnarData = isEnabled("columnar_sheet_data");
+            csv.randomSeed = getRandomSeed();
+            csv.parallelThreshold = getParallelThreshold();
+            csv.snapshotData = isEnabled("data_snapshot_cache");
+            csv.headers = new ArrayList<>(csv.getSheetData().getHeaders());
             BaseDataParser.storeDataParser(filePath + sheetName, csv);
             return csv;
         }
     }
 
-    private static synchronized void readCsv(CsvParser csv, CSVReader csvReader) throws Exception {
-        int i = 0;
-        var allLines = csvReader.readAll();
-        for(String[] line : allLines) {
-            if (i == 0) {
-                for (String value : line) {
-                    value = value.replace("\uFEFF", "");
-                    csv.headers.add(value.trim());
+    /***
+     * Returns the parsed csv content, the file is parsed once per process and the parsed
+     * data is shared with the parsers of all threads
+     *
+     * @return parsed csv data
+     * @author vamsikrishna.kayyala
+     */
+    private SheetData getSheetData() {
+        return SheetDataCache.getSheetData(sWBPath, sWSName, () -> {
+            try {
+                if (url != null) {
+                    try (var tokenizer = new CsvTokenizer(CsvUrlReader.open(url, urlRetries))) {
+                        return readCsv(sWBPath, sWSName, columnarData, tokenizer);
+                    }
                 }
-                i++;
-                continue;
+                if (snapshotData)
+                    return SheetSnapshot.load(sWBPath, sWSName, columnarData, this::readCsvFile);
+                return readCsvFile();
+            } catch (Exception e) {
+                throw new RuntimeException("Unable to read the csv file: " + sWBPath, e);
             }
+        });
+    }
+
+    private SheetData readCsvFile() {
+        try (var tokenizer = CsvTokenizer.open(sWBPath)) {
+            return readCsv(sWBPath, sWSName, columnarData, tokenizer);
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to read the csv file: " + sWBPath, e);
+        }
+    }
+
+    /***
+     * Builds the sheet data row by row while the csv is tokenized, the rows are never held
+     * in any other form than the sheet data
+     *
+     * @param filePath  - csv file path
+     * @param sheetName - sheet name given to the parser
+     * @param columnar  - true to keep the rows in columnar storage
+     * @param tokenizer - tokenizer positioned at the header line
+     * @return parsed csv data
+     * @author vamsikrishna.kayyala
+     */
+    private static SheetData readCsv(String filePath, String sheetName, boolean columnar,
+                                     CsvTokenizer tokenizer) throws Exception {
+        List<String> headers = new ArrayList<>();
+        String[] line = tokenizer.next();
+        if (line != null) {
+            for (String value : line)
+                headers.add(value.trim());
+        }
+        SheetData.Builder data = new SheetData.Builder(filePath, sheetName, headers, columnar);
+        int rowNumber = 0;
+        while ((line = tokenizer.next()) != null) {
             LinkedHashMap<String, String> rowData = new LinkedHashMap<>();
             int index = 0;
             for (String value : line) {
-                value = value.replace("\uFEFF", "");
-                rowData.put(csv.headers.get(index), value.trim());
+                rowData.put(headers.get(index), value.trim());
                 index++;
             }
-            rowData.put("ROW_NUMBER", String.valueOf(i));
-            csv.data.add(rowData);
-            csv.allLines = allLines;
+            // rows are numbered the same way as excel rows, the header line is row 0
+            rowData.put("ROW_NUMBER", String.valueOf(++rowNumber));
+            data.add(rowData);
         }
+        return data.build();
     }
 
     private CsvParser getNewInstance() {
@@ -119,12 +154,102 @@ public class CsvParser extends BaseDataParserImpl<CsvParser> implements DataPars
 
     @Override
     public List<String[]> readAsList() {
-        return allLines;
+        // rebuilding the lines from the shared sheet data, first line is the header line
+        var sheetData = getSheetData();
+        List<String[]> lines = new ArrayList<>();
+        lines.add(sheetData.getHeaders().toArray(new String[0]));
+        sheetData.stream().forEach(row -> {
+            row.remove("ROW_NUMBER");
+            lines.add(row.values().toArray(new String[0]));
+        });
+        return lines;
     }
 
     @Override
     public List<LinkedHashMap<String, String>> read() {
-        return processData(data);
+        return processData(getSheetData().getRows());
+    }
+
+    @Override
+    public Stream<LinkedHashMap<String, String>> stream() {
+        return getSheetData().stream().map(this::processRow);
+    }
+
+    @Override
+    public Stream<LinkedHashMap<String, String>> rawStream() {
+        return getSheetData().stream();
+    }
+
+    /***
+     * Reads the sheet data into a collection based on filter provided, rows are looked up through
+     * the column indexes of the shared sheet data when possible
+     *
+     * @param mFilters - map containing column name and values, used for filtering
+     * @return collection of rows where each row is represented as a map of column
+     *         name and column value
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public List<LinkedHashMap<String, String>> read(Map<String, String> mFilters) {
+        var rows = lookup(getSheetData(), mFilters);
+        return rows == null ? DataParser.super.read(mFilters) : processData(rows);
+    }
+
+    /***
+     * Reads the sheet data into a collection based on filter provided, rows are looked up through
+     * the column index of the shared sheet data when possible
+     *
+     * @param sColumn - Column name to put a filter on
+     * @param sValue  - Filter value
+     * @return collection of rows where each row is represented as a map of column
+     *         name and column value
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public List<LinkedHashMap<String, String>> read(String sColumn, String sValue) {
+        var rows = lookup(getSheetData(), Collections.singletonMap(sColumn, sValue));
+        return rows == null ? DataParser.super.read(sColumn, sValue) : processData(rows);
+    }
+
+    /***
+     * Reads the csv data into a collection based on a compiled filter, the shared csv data
+     * is scanned once without building the rows which do not match
+     *
+     * @param filter - compiled filter expression
+     * @return collection of rows where each row is represented as a map of column
+     *         name and column value
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public List<LinkedHashMap<String, String>> read(FilterExpression filter) {
+        return processData(scan(getSheetData(), filter));
+    }
+
+    /***
+     * Reads a random row among the rows satisfying a compiled filter, the matching rows are
+     * found in the shared sheet data and only the selected row is copied and processed
+     *
+     * @param filter - compiled filter expression
+     * @return returns a single processed row, or empty if no row satisfies the filter
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public Optional<LinkedHashMap<String, String>> readRandomRow(FilterExpression filter) {
+        return sampleRow(getSheetData(), filter);
+    }
+
+    /***
+     * Reads the distinct combinations of the given columns among the rows satisfying a filter,
+     * the cells are read from the shared sheet data without copying the rows
+     *
+     * @param filter  - compiled filter expression
+     * @param columns - column names which together make the distinct key
+     * @return returns the list of unique column value combinations with keys as column names
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public List<LinkedHashMap<String, String>> readUniqueColumnValues(FilterExpression filter, List<String> columns) {
+        return distinct(getSheetData(), filter, columns);
     }
 
     @Override
@@ -145,13 +270,14 @@ public class CsvParser extends BaseDataParserImpl<CsvParser> implements DataPars
     @Override
     public void clear() {
         try {
+            CsvWriter.getWriter(sWBPath).close();
             File file = new File(sWBPath);
             List<String> lines = FileUtils.readLines(file, Charset.defaultCharset());
             if (lines.size() > 1) {
                 lines.subList(1, lines.size()).clear();
             }
             FileUtils.writeLines(file, lines);
-            readCSVFile();
+            invalidate();
         } catch (Exception e) {
             throw new RuntimeException("Exception occurred while reading " + sWBPath);
         }
@@ -160,7 +286,7 @@ public class CsvParser extends BaseDataParserImpl<CsvParser> implements DataPars
     @Override
     public void write(Map<String, String> sData, int iRow) {
         write_to_file(getCsvRow(sData));
-        readCSVFile();
+        invalidate();
     }
 
     @Override
@@ -171,13 +297,13 @@ public class CsvParser extends BaseDataParserImpl<CsvParser> implements DataPars
             newLines.add(getCsvRow(rowData));
         }
         write_to_file(newLines);
-        readCSVFile();
+        invalidate();
     }
 
     @Override
     public void write(Map<String, String> sData) {
         write_to_file(getCsvRow(sData));
-        readCSVFile();
+        invalidate();
     }
 
     private String getCsvRow(Map<String, String> sData) {
@@ -197,32 +323,18 @@ public class CsvParser extends BaseDataParserImpl<CsvParser> implements DataPars
         }
     }
 
-    private synchronized void write_to_file(String data) {
-        try {
-            File file = new File(sWBPath);
-            List<String> lines = FileUtils.readLines(file, Charset.defaultCharset());
-            lines.add(data);
-            FileUtils.writeLines(file, lines);
-        } catch (Exception e) {
-            throw new RuntimeException("Error occurred while writing " +
-                    data + " to a csv file named " + sWBPath);
-        }
+    private void write_to_file(String data) {
+        CsvWriter.getWriter(sWBPath).append(data);
     }
 
-    private synchronized void write_to_file(List<String> data) {
-        try {
-            File file = new File(sWBPath);
-            List<String> lines = FileUtils.readLines(file, Charset.defaultCharset());
-            lines.addAll(data);
-            FileUtils.writeLines(file, lines);
-        } catch (Exception e) {
-            throw new RuntimeException("Error occurred while writing " +
-                    data + " to a csv file named " + sWBPath);
-        }
+    private void write_to_file(List<String> data) {
+        CsvWriter.getWriter(sWBPath).append(data);
     }
 
     private synchronized void write_to_file(String data, int iRow) {
         try {
+            // inserting at a row rewrites the file, queued appends are written out first
+            CsvWriter.getWriter(sWBPath).close();
             File file = new File(sWBPath);
             List<String> lines = FileUtils.readLines(file, Charset.defaultCharset());
             for (int i = lines.size() - 1; i >= iRow; i--) {
@@ -236,33 +348,12 @@ public class CsvParser extends BaseDataParserImpl<CsvParser> implements DataPars
         }
     }
 
-    private void readCSVFile() {
-        this.headers = new ArrayList<>();
-        this.data = new ArrayList<>();
-        try {
-            CSVReader csvReader = new CSVReaderBuilder(new FileReader(sWBPath)).build();
-            String[] nextLine;
-            int i = 0;
-            while ((nextLine = csvReader.readNext()) != null) {
-                if (i == 0) {
-                    for (String value : nextLine) {
-                        value = value.replace("\uFEFF", "");
-                        headers.add(value.trim());
-                    }
-                    i++;
-                    continue;
-                }
-                LinkedHashMap<String, String> rowData = new LinkedHashMap<>();
-                int index = 0;
-                for (String value : nextLine) {
-                    value = value.replace("\uFEFF", "");
-                    rowData.put(headers.get(index), value.trim());
-                    index++;
-                }
-                data.add(rowData);
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Unable to read the csv file: " + sWBPath, e);
-        }
+    /***
+     * Marks the cached csv data as stale after any write into the file
+     *
+     * @author vamsikrishna.kayyala
+     */
+    private void invalidate() {
+        SheetDataCache.invalidate(sWBPath, sWSName);
     }
-}
\ No newline at end of file
+}
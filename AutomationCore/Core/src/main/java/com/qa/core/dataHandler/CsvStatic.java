@@ -8,7 +8,7 @@ import java.io.FileReader;
 
 public class CsvStatic {
 
-    public static synchronized CSVReader getWorkbook(String filePath) throws FileNotFoundException {
+    public static CSVReader getWorkbook(String filePath) throws FileNotFoundException {
         return new CSVReaderBuilder(new FileReader(filePath)).build();
     }
 }
@@ -0,0 +1,159 @@
+package com.qa.core.dataHandler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming csv tokenizer, the file is decoded through a fixed size buffer and rows are returned
+ * one at a time, so only the row being read is held in memory besides the rows kept by the caller.
+ *
+ * Fields follow the same rules as the OpenCSV reader used earlier: fields are separated by comma,
+ * a field starting with a double quote may hold commas, line breaks and quotes written as two
+ * double quotes, a backslash escapes a quote or a backslash within quotes, and every line
+ * break outside quotes ends a row. A byte order mark is skipped once at the start of the file.
+ */
+public class CsvTokenizer implements Closeable {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final char ESCAPE = '\\';
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private final StringBuilder field = new StringBuilder();
+    private int position = 0;
+    private int limit = 0;
+    private boolean started = false;
+
+    public CsvTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /***
+     * Opens a tokenizer on a csv file, the file is read through a file channel with the
+     * default charset, same as reading it through a FileReader
+     *
+     * @param filePath - csv file path
+     * @return tokenizer positioned at the first row of the file
+     * @author vamsikrishna.kayyala
+     */
+    public static CsvTokenizer open(String filePath) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        return new CsvTokenizer(Channels.newReader(channel, Charset.defaultCharset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE), -1));
+    }
+
+    /***
+     * Reads the next row of the file
+     *
+     * @return field values of the row, or null once the end of the file is reached
+     * @author vamsikrishna.kayyala
+     */
+    public String[] next() throws IOException {
+        if (!started) {
+            started = true;
+            if (peek() == BOM)
+                position++;
+        }
+        if (peek() < 0)
+            return null;
+
+        List<String> fields = new ArrayList<>();
+        while (true) {
+            int end = readField();
+            fields.add(field.toString());
+            if (end != SEPARATOR)
+                return fields.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Reads a single field into the field buffer and returns the character which ended it,
+     * which is either a separator, a line break or -1 at the end of the file
+     */
+    private int readField() throws IOException {
+        field.setLength(0);
+        int ch;
+        // white space before a quoted field is dropped, so that quoted fields may be indented
+        while ((ch = peek()) == ' ' || ch == '\t')
+            field.append((char) read());
+        if (ch == QUOTE) {
+            field.setLength(0);
+            read();
+            readQuoted();
+        }
+        while (true) {
+            ch = read();
+            if (ch < 0 || ch == SEPARATOR || ch == '\n')
+                return ch;
+            if (ch == '\r') {
+                if (peek() == '\n')
+                    read();
+                return '\n';
+            }
+            field.append((char) ch);
+        }
+    }
+
+    private void readQuoted() throws IOException {
+        while (true) {
+            int ch = read();
+            if (ch < 0)
+                return;
+            if (ch == QUOTE) {
+                if (peek() != QUOTE)
+                    return;
+                read();
+                field.append(QUOTE);
+            } else if (ch == ESCAPE && (peek() == QUOTE || peek() == ESCAPE)) {
+                field.append((char) read());
+            } else if (ch == '\r') {
+                if (peek() == '\n')
+                    read();
+                field.append('\n');
+            } else {
+                field.append((char) ch);
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0)
+            return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
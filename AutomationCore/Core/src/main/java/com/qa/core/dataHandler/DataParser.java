@@ -2,11 +2,15 @@ package com.qa.core.dataHandler;
 
 import com.qa.core.context.RunConfiguration;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public interface DataParser extends BaseDataParser {
 
@@ -14,6 +18,25 @@ public interface DataParser extends BaseDataParser {
 
     List<LinkedHashMap<String, String>> read();
 
+    /***
+     * Streams the sheet data row by row, each row is processed the same way as {@link #read()} does.
+     * Parsers which support streaming read the rows lazily from the file, so the stream must be closed
+     * when it is not consumed completely
+     *
+     * @return stream of rows where each row is represented as a map of column name and column value
+     * @author vamsikrishna.kayyala
+     */
+    Stream<LinkedHashMap<String, String>> stream();
+
+    /***
+     * Streams the sheet data row by row without processing it, used to filter the rows on their
+     * raw values before any of them is processed
+     *
+     * @return stream of unprocessed rows
+     * @author vamsikrishna.kayyala
+     */
+    Stream<LinkedHashMap<String, String>> rawStream();
+
     String getWorkbookPath();
 
     String getWorksheetPath();
@@ -42,20 +65,32 @@ public interface DataParser extends BaseDataParser {
      * @author vamsikrishna.kayyala
      */
     default List<LinkedHashMap<String, String>> read(Map<String, String> mFilters) {
-        return processData(filterData(read(), mFilters));
+        return read(FilterExpression.equalTo(mFilters));
     }
 
     /***
      * Reads the sheet data into a collection based on filter provided
      *
-     * @param arFilters - array containing column name and values separated by ==, used for filtering
-     *                 Excel sheet to read data
+     * @param arFilters - array of filter conditions such as column==value, column in (a,b) or
+     *                  column=~regex, see {@link FilterExpression} for all the operators
      * @return collection of rows where each row is represented as a map of column
      *         name and column value
      * @author vamsikrishna.kayyala
      */
     default List<LinkedHashMap<String, String>> read(String[] arFilters) {
-        return processData(filterData(read(), arFilters));
+        return read(FilterExpression.compile(arFilters));
+    }
+
+    /***
+     * Reads the sheet data into a collection based on a compiled filter
+     *
+     * @param filter - compiled filter expression
+     * @return collection of rows where each row is represented as a map of column
+     *         name and column value
+     * @author vamsikrishna.kayyala
+     */
+    default List<LinkedHashMap<String, String>> read(FilterExpression filter) {
+        return processMatching(rawStream(), filter);
     }
 
     /***
@@ -68,7 +103,7 @@ public interface DataParser extends BaseDataParser {
      * @author vamsikrishna.kayyala
      */
     default List<LinkedHashMap<String, String>> read(String sColumn, String sValue) {
-        return processData(filterData(read(), sColumn, sValue));
+        return read(FilterExpression.equalTo(Collections.singletonMap(sColumn, sValue)));
     }
 
     /***
@@ -83,10 +118,10 @@ public interface DataParser extends BaseDataParser {
      * @author vamsikrishna.kayyala
      */
     default List<LinkedHashMap<String, String>> read(String sColumn, String sValue, String exclude_column, String exclude_value) {
-        var completeData = read(sColumn, sValue);
+        // rows returned by read are processed already, only the exclude column of each row is resolved here
         Predicate<LinkedHashMap<String, String>> filterCondition =
-                map -> map.containsKey(exclude_column) && !map.get(exclude_column).equals(exclude_value);
-        return processData(filterData(completeData, filterCondition));
+                map -> map.containsKey(exclude_column) && !matches(map, exclude_column, exclude_value);
+        return filterData(read(sColumn, sValue), filterCondition);
     }
 
     /***
@@ -97,13 +132,36 @@ public interface DataParser extends BaseDataParser {
      * @author vamsikrishna.kayyala
      */
     default List<LinkedHashMap<String, String>> readUniqueColumnValues(String column) {
-        var results = read();
-        var uniqueData = getUniqueColumnValues(column, results);
-        return processData(uniqueData);
+        return readUniqueColumnValues(FilterExpression.equalTo(Collections.emptyMap()), Collections.singletonList(column));
     }
 
     /***
-     * Reads a single column values with no duplicates
+     * Reads the distinct combinations of the given columns
+     *
+     * @param columns - column names which together make the distinct key
+     * @return returns the list of unique column value combinations with keys as column names
+     * @author vamsikrishna.kayyala
+     */
+    default List<LinkedHashMap<String, String>> readUniqueColumnValues(List<String> columns) {
+        return readUniqueColumnValues(FilterExpression.equalTo(Collections.emptyMap()), columns);
+    }
+
+    /***
+     * Reads the distinct combinations of the given columns among the rows satisfying a filter, the
+     * rows are deduplicated in a single pass on their raw values and no other cell is processed
+     *
+     * @param filter  - compiled filter expression
+     * @param columns - column names which together make the distinct key
+     * @return returns the list of unique column value combinations with keys as column names
+     * @author vamsikrishna.kayyala
+     */
+    default List<LinkedHashMap<String, String>> readUniqueColumnValues(FilterExpression filter, List<String> columns) {
+        return distinct(rawStream().filter(row -> matches(row, filter)), columns);
+    }
+
+    /***
+     * Reads a random row among the rows matching the filter, rows are sampled while they are
+     * streamed and only the selected row is processed
      *
      * @param column - Column name to put a filter on
      * @param value  - Filter value
@@ -111,7 +169,7 @@ public interface DataParser extends BaseDataParser {
      * @author vamsikrishna.kayyala
      */
     default LinkedHashMap<String, String> readRandomRow(String column, String value) {
-        var row = readRandomRow(read(column, value));
+        var row = readRandomRow(FilterExpression.equalTo(Collections.singletonMap(column, value)));
         if (row.isEmpty()) {
             throw new RuntimeException("Looks like there are no matching rows for column " +
                     "" + column + " and value " + value + " in " + getWorkbookPath());
@@ -121,7 +179,8 @@ public interface DataParser extends BaseDataParser {
     }
 
     /***
-     * Reads a single column values with no duplicates
+     * Reads a random row among the rows matching the filter and not matching the exclude filter,
+     * rows are sampled while they are streamed and only the selected row is processed
      *
      * @param column - Column name to put a filter on
      * @param value  - Filter value
@@ -132,7 +191,8 @@ public interface DataParser extends BaseDataParser {
      * @author vamsikrishna.kayyala
      */
     default LinkedHashMap<String, String> readRandomRow(String column, String value, String exclude_column, String exclude_value) {
-        var row = readRandomRow(read(column, value, exclude_column, exclude_value));
+        var row = readRandomRow(FilterExpression.equalTo(Collections.singletonMap(column, value),
+                Collections.singletonMap(exclude_column, exclude_value)));
         if (row.isEmpty()) {
             throw new RuntimeException("Looks like there are no matching rows for column " +
                     "" + column + " and value " + value + " in " + getWorkbookPath());
@@ -141,6 +201,17 @@ public interface DataParser extends BaseDataParser {
         }
     }
 
+    /***
+     * Reads a random row among the rows satisfying a compiled filter
+     *
+     * @param filter - compiled filter expression
+     * @return returns a single processed row, or empty if no row satisfies the filter
+     * @author vamsikrishna.kayyala
+     */
+    default Optional<LinkedHashMap<String, String>> readRandomRow(FilterExpression filter) {
+        return sampleRow(rawStream().map(row -> processIfMatches(row, filter)).filter(Objects::nonNull));
+    }
+
     /***
      * Reads a single column values with no duplicates
      *
@@ -153,9 +224,8 @@ public interface DataParser extends BaseDataParser {
     default List<LinkedHashMap<String, String>> readUniqueColumnValues(String filterColumn,
                                                                       String filterValue,
                                                                       String column) {
-        var results = read(filterColumn, filterValue);
-        var uniqueData = getUniqueColumnValues(column, results);
-        return processData(uniqueData);
+        return readUniqueColumnValues(FilterExpression.equalTo(Collections.singletonMap(filterColumn, filterValue)),
+                Collections.singletonList(column));
     }
 
     /***
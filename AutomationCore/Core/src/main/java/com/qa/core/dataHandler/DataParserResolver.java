@@ -1,22 +1,33 @@
 package com.qa.core.dataHandler;
 
 import com.qa.core.context.RunConfiguration;
+import com.qa.core.util.BeanUtil;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
-import java.util.LinkedHashMap;
-import java.util.List;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 @Component
 @Lazy
 @Scope("prototype")
 public class DataParserResolver {
 
+    private static final AtomicBoolean preloaded = new AtomicBoolean(false);
+    private static final ConcurrentHashMap<String, Catalog> catalogs = new ConcurrentHashMap<>();
+
     private final ExcelParser excel;
     private final CsvParser csv;
     private final RunConfiguration config;
     private DataParser catalogParser = null;
+    private String catalogParserPath = null;
 
     public DataParserResolver(ExcelParser excel, CsvParser csv,
                               RunConfiguration config) {
@@ -30,22 +41,139 @@ public class DataParserResolver {
         return getDataParser(sheetDetails);
     }
 
-    private LinkedHashMap<String, String> getWorksheetDetailsFromCatalogFile(String sheetName) {
-        catalogParser = getCatalogDataParser(ParserUtils.getAbsolutePathOfFile(config.getProperty("catalog_path")));
-        return  readSheetDetailsFromCatalogFile(catalogParser, sheetName);
+    /***
+     * Preloads all the sheets of the catalog once per process when preload_test_data is enabled,
+     * to be called before the tests are dispatched
+     *
+     * @author vamsikrishna.kayyala
+     */
+    public void preloadOnce() {
+        if (Boolean.parseBoolean(config.getProperty("preload_test_data", "false"))
+                && preloaded.compareAndSet(false, true))
+            preload();
     }
 
-    private synchronized LinkedHashMap<String, String> readSheetDetailsFromCatalogFile(DataParser data, String sheetName) {
-        var sheetData = data.read("Name", sheetName);
-        if (!isSheetNamePartOfCatalog(sheetData))
+    /***
+     * Parses all the Excel and csv sheets referenced by the catalog file concurrently, so the
+     * tests find them in the shared sheet cache. Number of threads can be set through
+     * preload_threads run configuration. Load time and file size of every sheet is printed
+     *
+     * @author vamsikrishna.kayyala
+     */
+    public void preload() {
+        Set<List<String>> sheets = new LinkedHashSet<>();
+        Catalog catalog = getCatalog();
+        List<LinkedHashMap<String, String>> rows = new ArrayList<>(catalog.sheets.values());
+        rows.addAll(catalog.resolvedNames);
+        for (LinkedHashMap<String, String> rawRow : rows) {
+            Map<String, String> row = catalogParser.processRow(new LinkedHashMap<>(rawRow));
+            String workbookPath = row.get("WorkbookPath");
+            String sheetName = row.get("SheetName");
+            if (workbookPath != null && !workbookPath.isEmpty())
+                sheets.add(List.of(ParserUtils.getAbsolutePathOfFile(workbookPath), sheetName == null ? "" : sheetName));
+        }
+
+        int threads = Math.max(1, Integer.parseInt(config.getProperty("preload_threads",
+                String.valueOf(Math.min(4, Runtime.getRuntime().availableProcessors())))));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            Map<List<String>, Future<String>> results = new LinkedHashMap<>();
+            for (List<String> sheet : sheets)
+                results.put(sheet, pool.submit(() -> preload(sheet.get(0), sheet.get(1))));
+            for (Map.Entry<List<String>, Future<String>> result : results.entrySet()) {
+                try {
+                    System.out.println(result.getValue().get());
+                } catch (Exception e) {
+                    System.out.println("Unable to preload " + result.getKey().get(1) + " from "
+                            + result.getKey().get(0) + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println("Preloaded " + sheets.size() + " sheets in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms using " + threads + " threads");
+    }
+
+    /**
+     * Runs on a pool thread, parsers are taken from new beans so that every thread loads its own
+     * run configuration and the sheets are parsed without waiting on a shared parser
+     */
+    private static String preload(String filePath, String sheetName) {
+        long start = System.nanoTime();
+        var resolver = BeanUtil.getBean(DataParserResolver.class);
+        resolver.getDataParser(filePath, sheetName);
+        return "Preloaded " + sheetName + " from " + filePath + " in " + (System.nanoTime() - start) / 1_000_000
+                + " ms, " + new File(filePath).length() + " bytes";
+    }
+
+    /**
+     * Returns the catalog record of a name, processed with the run configuration of the calling
+     * thread so its placeholders follow the current environment
+     */
+    private Map<String, String> getWorksheetDetailsFromCatalogFile(String sheetName) {
+        Catalog catalog = getCatalog();
+        var sheetDetails = catalog.sheets.get(sheetName);
+        if (sheetDetails == null) {
+            for (LinkedHashMap<String, String> row : catalog.resolvedNames) {
+                if (sheetName.equals(catalogParser.processRow(new LinkedHashMap<>(row)).get("Name"))) {
+                    sheetDetails = row;
+                    break;
+                }
+            }
+        }
+        if (sheetDetails == null)
             throw new IllegalArgumentException("There is no record available in the catalog sheet for the Name: "
                     + sheetName);
-        return sheetData.get(0);
+        return catalogParser.processRow(new LinkedHashMap<>(sheetDetails));
+    }
+
+    /***
+     * Returns the catalog of the configured catalog file, shared by all the threads. The catalog
+     * keeps the raw records, so records holding placeholders are processed on every lookup with the
+     * run configuration of the thread looking them up. A catalog is read again only when its file
+     * is modified. Threads never wait on each other, a changed catalog is parsed by the first
+     * threads noticing the change and published as a whole
+     *
+     * @return parsed catalog
+     * @author vamsikrishna.kayyala
+     */
+    private Catalog getCatalog() {
+        String catalogPath = ParserUtils.getAbsolutePathOfFile(config.getProperty("catalog_path"));
+        long lastModified = new File(catalogPath).lastModified();
+        DataParser parser = getCatalogDataParser(catalogPath);
+        Catalog current = catalogs.get(catalogPath);
+        if (current != null && current.lastModified == lastModified)
+            return current;
+
+        Map<String, LinkedHashMap<String, String>> sheets = new HashMap<>();
+        List<LinkedHashMap<String, String>> resolvedNames = new ArrayList<>();
+        try (Stream<LinkedHashMap<String, String>> rows = parser.rawStream()) {
+            rows.forEach(row -> {
+                String name = row.get("Name");
+                if (name == null)
+                    return;
+                // names holding placeholders are known only once they are processed for a lookup
+                if (name.contains("$$") || name.contains("<<"))
+                    resolvedNames.add(row);
+                // first record of a name wins, same as reading the catalog with a filter
+                else if (!sheets.containsKey(name))
+                    sheets.put(name, row);
+            });
+        }
+        Catalog updated = new Catalog(lastModified, Collections.unmodifiableMap(sheets),
+                Collections.unmodifiableList(resolvedNames));
+        catalogs.put(catalogPath, updated);
+        return updated;
     }
 
     private DataParser getCatalogDataParser(String catalogFilePath) {
-        if (catalogParser == null)
+        // the catalog path may differ between environments
+        if (catalogParser == null || !catalogFilePath.equals(catalogParserPath)) {
             catalogParser = getDataParser(catalogFilePath, "Data");
+            catalogParserPath = catalogFilePath;
+        }
         return catalogParser;
     }
 
@@ -69,15 +197,11 @@ public class DataParserResolver {
         return excel.getInstance(filePath, name);
     }
 
-    private DataParser getDataParser(LinkedHashMap<String, String> sheetDetails) {
+    private DataParser getDataParser(Map<String, String> sheetDetails) {
         return getDataParser(ParserUtils.getAbsolutePathOfFile(sheetDetails.get("WorkbookPath")),
                 sheetDetails.get("SheetName"));
     }
 
-    private boolean isSheetNamePartOfCatalog(List<LinkedHashMap<String, String>> details) {
-        return details.size() > 0;
-    }
-
     private DataParser getDataParser(String filePath, String sheetName) {
         if (isValidFile(filePath)) {
             if (isCsvFile(filePath))
@@ -89,4 +213,21 @@ public class DataParserResolver {
                     + filePath);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Raw records of a catalog file, by name. Records whose name holds placeholders are kept apart
+     * and matched on their processed name
+     */
+    private static final class Catalog {
+        private final long lastModified;
+        private final Map<String, LinkedHashMap<String, String>> sheets;
+        private final List<LinkedHashMap<String, String>> resolvedNames;
+
+        Catalog(long lastModified, Map<String, LinkedHashMap<String, String>> sheets,
+                List<LinkedHashMap<String, String>> resolvedNames) {
+            this.lastModified = lastModified;
+            this.sheets = sheets;
+            this.resolvedNames = resolvedNames;
+        }
+    }
+}
@@ -12,7 +12,10 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 @Lazy
@@ -24,9 +27,9 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
     private final BeanUtil beanUtil;
     private Workbook xBook;
     private Sheet xSheet;
-    private Row xRow;
-    private int iCurrentRow = 0;
-    private FormulaEvaluator evaluator;
+    private boolean streamingRead = false;
+    private boolean writeBehind = false;
+    private int writeCheckpoint = 0;
 
     public ExcelParser(DataProcessor dp, RunConfiguration config, BeanUtil beanUtil) {
         super(config, dp);
@@ -65,33 +68,26 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
                 // Creating a new instance of Excel object
                 ExcelParser oExcel = getNewInstance();
                 oExcel.sWBPath = sWBPath;
-                oExcel.sWSName = sWSSheet;
-
-                oExcel.xBook = ExcelStatic.getWorkbook(sWBPath);
+                oExcel.streamingRead = isStreamingRead(sWBPath);
+                oExcel.columnarData = isEnabled("columnar_sheet_data");
+                oExcel.snapshotData = isEnabled("data_snapshot_cache");
+                oExcel.writeBehind = isEnabled("excel_write_behind");
+                oExcel.writeCheckpoint = getIntProperty("excel_write_checkpoint", 0);
+                oExcel.randomSeed = getRandomSeed();
+                oExcel.parallelThreshold = getParallelThreshold();
 
                 // to get environment specific worksheet
-                String sheetName = getSheetName(oExcel.xBook, sWSSheet);
-
-                // Accessing the Excel worksheet
-                oExcel.xSheet = ExcelStatic.getWorksheet(oExcel.xBook, sheetName);
-                oExcel.sWSName = sheetName;
-
-                // Setting the current row to 0
-                oExcel.xRow = oExcel.xSheet.getRow(oExcel.iCurrentRow);
-
-                // Creating a cell iterator to loop through all header cells
-                Iterator<Cell> cellIterator = oExcel.xRow.cellIterator();
-
-                // Accessing all the header cells into a list
-                while (cellIterator.hasNext()) {
-                    oExcel.sHeaders.add(cellIterator.next().getStringCellValue());
+                oExcel.sWSName = getSheetName(getSheetNames(sWBPath), sWSSheet);
+
+                if (oExcel.streamingRead) {
+                    // Reading only the header row, data rows are streamed on every read
+                    oExcel.sHeaders.addAll(ExcelStreamReader.getHeaders(sWBPath, oExcel.sWSName));
+                } else {
+                    // Sheet data is parsed once per process and shared with the parsers of all threads
+                    oExcel.sHeaders.addAll(oExcel.getSheetData().getHeaders());
                 }
 
-                // Incrementing current row by 1 and updating to the worksheet
-                oExcel.xSheet.getRow(oExcel.iCurrentRow++);
-
-                // Creating a formula evaluator
-                oExcel.evaluator = oExcel.xBook.getCreationHelper().createFormulaEvaluator();
+                // the workbook itself is loaded only when something has to be written into it
                 BaseDataParser.storeDataParser(sWBPath + sWSSheet, oExcel);
                 return oExcel;
             }
@@ -104,21 +100,114 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
         return beanUtil.getBeanClass(ExcelParser.class);
     }
 
+    /***
+     * Streaming read is enabled through excel_streaming_read run configuration and
+     * it is supported only for xlsx workbooks
+     *
+     * @param sWBPath - Excel workbook path
+     * @return true if the rows should be streamed from the workbook instead of loading it
+     * @author vamsikrishna.kayyala
+     */
+    private boolean isStreamingRead(String sWBPath) {
+        return sWBPath.toLowerCase().endsWith(".xlsx") && isEnabled("excel_streaming_read");
+    }
+
+    /***
+     * Loads the workbook for write operations, reads never need the workbook object as they
+     * are served from the shared sheet data or streamed from the file
+     *
+     * @author vamsikrishna.kayyala
+     */
+    private void loadWorkbook() {
+        if (xBook == null) {
+            try {
+                xBook = ExcelStatic.getWorkbook(sWBPath);
+                xSheet = ExcelStatic.getWorksheet(xBook, sWSName);
+            } catch (IOException e) {
+                throw new RuntimeException("Error occurred while accessing " + sWSName + " from " + sWBPath, e);
+            }
+        }
+    }
+
+    /***
+     * Marks the cached sheet data as stale after any write into the workbook
+     *
+     * @author vamsikrishna.kayyala
+     */
+    private void invalidate() {
+        SheetDataCache.invalidate(sWBPath, sWSName);
+    }
+
+    private static List<String> getSheetNames(String sWBPath) {
+        return SheetDataCache.getSheetNames(sWBPath, () -> {
+            try {
+                return ExcelStatic.getSheetNames(sWBPath);
+            } catch (IOException e) {
+                throw new RuntimeException("Error occurred while reading sheet names from " + sWBPath, e);
+            }
+        });
+    }
+
+    private SheetData getSheetData() {
+        // buffered writes are saved before the workbook is read, so reads always see them
+        ExcelWriteBuffer.flush(sWBPath);
+        return SheetDataCache.getSheetData(sWBPath, sWSName, () -> snapshotData
+                ? SheetSnapshot.load(sWBPath, sWSName, columnarData, () -> readSheetData(sWBPath, sWSName, columnarData))
+                : readSheetData(sWBPath, sWSName, columnarData));
+    }
+
+    /***
+     * Parses the complete worksheet through the POI user model, the workbook is closed
+     * as soon as the rows are copied
+     *
+     * @param sWBPath - Excel workbook path
+     * @param sWSName - Worksheet name
+     * @param columnar - true to keep the rows in columnar storage
+     * @return parsed sheet data
+     * @author vamsikrishna.kayyala
+     */
+    private static SheetData readSheetData(String sWBPath, String sWSName, boolean columnar) {
+        try (Workbook book = ExcelStatic.getWorkbook(sWBPath)) {
+            Sheet sheet = ExcelStatic.getWorksheet(book, sWSName);
+            FormulaEvaluator evaluator = book.getCreationHelper().createFormulaEvaluator();
+
+            // Accessing all the header cells into a list
+            List<String> headers = new ArrayList<>();
+            Iterator<Cell> cellIterator = sheet.getRow(0).cellIterator();
+            while (cellIterator.hasNext()) {
+                headers.add(cellIterator.next().getStringCellValue());
+            }
+
+            var sheetData = new SheetData.Builder(sWBPath, sWSName, headers, columnar);
+            for (int iRow = 1; iRow <= sheet.getLastRowNum(); iRow++) {
+                Row row = sheet.getRow(iRow);
+                LinkedHashMap<String, String> lRow = new LinkedHashMap<>();
+                for (int iCell = 0; iCell < headers.size(); iCell++)
+                    lRow.put(headers.get(iCell), getValue(evaluator, row, iCell));
+                lRow.put("ROW_NUMBER", String.valueOf(iRow));
+                sheetData.add(lRow);
+            }
+            return sheetData.build();
+        } catch (Exception e) {
+            throw new RuntimeException("Error occurred while accessing " + sWSName + " from " + sWBPath, e);
+        }
+    }
+
     /***
      * Returns the environment specific sheet name. For example, if we pass Login as
      * a sheet name to this method, and workbook contains a sheet like Login_dev or
      * Login_staging, then it will return the appropriate sheet name based on the
      * current environment
      *
-     * @param book  - Workbook object
-     * @param sheet - Worksheet name
+     * @param sheetNames - worksheet names of the workbook
+     * @param sheet      - Worksheet name
      * @return if the workbook contains any environment specific worksheet, then it
      *         will return that name.
      * @author vamsikrishna.kayyala
      */
-    private String getSheetName(Workbook book, String sheet) {
+    private String getSheetName(List<String> sheetNames, String sheet) {
         String env = config.getProperty("env");
-        return (book.getSheet(sheet + "_" + env) == null) ? sheet : sheet + "_" + env;
+        return sheetNames.contains(sheet + "_" + env) ? sheet + "_" + env : sheet;
     }
 
     /***
@@ -130,21 +219,111 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
      */
     @Override
     public List<LinkedHashMap<String, String>> read() {
-        if (isDataSaved("TOTAL_DATA")) {
-            return processData(getSavedData("TOTAL_DATA"));
-        } else {
-            List<LinkedHashMap<String, String>> lReturn = new ArrayList<>();
-            this.iCurrentRow = 0;
-            while (HasNext()) {
-                LinkedHashMap<String, String> lRow = new LinkedHashMap<>();
-                for (String sHeader : sHeaders)
-                    lRow.put(sHeader, getValue(sHeader));
-                lRow.put("ROW_NUMBER", String.valueOf(this.iCurrentRow));
-                lReturn.add(lRow);
-            }
-            saveData("TOTAL_DATA", lReturn);
-            return processData(lReturn);
+        if (streamingRead) {
+            return stream().collect(Collectors.toList());
         }
+        return processData(getTotalData());
+    }
+
+    /***
+     * Streams the sheet data row by row. In streaming mode rows are parsed from the workbook
+     * only when the stream is consumed, so the complete sheet is never held in memory
+     *
+     * @return stream of rows where each row is represented as a map of column name and column value
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public Stream<LinkedHashMap<String, String>> stream() {
+        if (streamingRead) {
+            ExcelWriteBuffer.flush(sWBPath);
+            return ExcelStreamReader.stream(sWBPath, sWSName, sHeaders).map(this::processRow);
+        }
+        return getSheetData().stream().map(this::processRow);
+    }
+
+    @Override
+    public Stream<LinkedHashMap<String, String>> rawStream() {
+        if (streamingRead) {
+            ExcelWriteBuffer.flush(sWBPath);
+            return ExcelStreamReader.stream(sWBPath, sWSName, sHeaders);
+        }
+        return getSheetData().stream();
+    }
+
+    private List<LinkedHashMap<String, String>> getTotalData() {
+        return getSheetData().getRows();
+    }
+
+    /***
+     * Reads the sheet data into a collection based on filter provided, rows are looked up through
+     * the column indexes of the shared sheet data when possible
+     *
+     * @param mFilters - map containing column name and values, used for filtering
+     * @return collection of rows where each row is represented as a map of column
+     *         name and column value
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public List<LinkedHashMap<String, String>> read(Map<String, String> mFilters) {
+        var rows = streamingRead ? null : lookup(getSheetData(), mFilters);
+        return rows == null ? DataParser.super.read(mFilters) : processData(rows);
+    }
+
+    /***
+     * Reads the sheet data into a collection based on filter provided, rows are looked up through
+     * the column index of the shared sheet data when possible
+     *
+     * @param sColumn - Column name to put a filter on
+     * @param sValue  - Filter value
+     * @return collection of rows where each row is represented as a map of column
+     *         name and column value
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public List<LinkedHashMap<String, String>> read(String sColumn, String sValue) {
+        var rows = streamingRead ? null : lookup(getSheetData(), Collections.singletonMap(sColumn, sValue));
+        return rows == null ? DataParser.super.read(sColumn, sValue) : processData(rows);
+    }
+
+    /***
+     * Reads the sheet data into a collection based on a compiled filter, the shared sheet data
+     * is scanned once without building the rows which do not match
+     *
+     * @param filter - compiled filter expression
+     * @return collection of rows where each row is represented as a map of column
+     *         name and column value
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public List<LinkedHashMap<String, String>> read(FilterExpression filter) {
+        return streamingRead ? DataParser.super.read(filter) : processData(scan(getSheetData(), filter));
+    }
+
+    /***
+     * Reads a random row among the rows satisfying a compiled filter, the matching rows are
+     * found in the shared sheet data and only the selected row is copied and processed
+     *
+     * @param filter - compiled filter expression
+     * @return returns a single processed row, or empty if no row satisfies the filter
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public Optional<LinkedHashMap<String, String>> readRandomRow(FilterExpression filter) {
+        return streamingRead ? DataParser.super.readRandomRow(filter) : sampleRow(getSheetData(), filter);
+    }
+
+    /***
+     * Reads the distinct combinations of the given columns among the rows satisfying a filter,
+     * the cells are read from the shared sheet data without copying the rows
+     *
+     * @param filter  - compiled filter expression
+     * @param columns - column names which together make the distinct key
+     * @return returns the list of unique column value combinations with keys as column names
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public List<LinkedHashMap<String, String>> readUniqueColumnValues(FilterExpression filter, List<String> columns) {
+        return streamingRead ? DataParser.super.readUniqueColumnValues(filter, columns) : distinct(getSheetData(), filter, columns);
     }
 
     @Override
@@ -166,23 +345,9 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
         throw new RuntimeException("TO BE IMPLEMENTED FOR EXCEL, USE CSV FILE TO USE THIS METHOD");
     }
 
-    private boolean HasNext() {
-        if (xSheet.getLastRowNum() > iCurrentRow) {
-            MoveNext();
-            return true;
-        } else {
-            return false;
-        }
-    }
-
-    private void MoveNext() {
-        iCurrentRow++;
-        xRow = xSheet.getRow(iCurrentRow);
-    }
-
-    private String getValue(String sHeader) {
+    private static String getValue(FormulaEvaluator evaluator, Row row, int iCell) {
         try {
-            CellValue cell = evaluator.evaluate(xRow.getCell(sHeaders.indexOf(sHeader)));
+            CellValue cell = evaluator.evaluate(row.getCell(iCell));
             if (cell == null) {
                 return "";
             } else {
@@ -202,12 +367,53 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
         }
     }
 
+    /***
+     * Saves the buffered writes of all the workbooks, to be called at the end of the suite when
+     * excel_write_behind is enabled
+     *
+     * @author vamsikrishna.kayyala
+     */
+    public static void flushBufferedWrites() {
+        ExcelWriteBuffer.flushAll();
+    }
+
+    private ExcelWriteBuffer getWriteBuffer() {
+        return ExcelWriteBuffer.getBuffer(sWBPath);
+    }
+
+    private int getLastRowNumber() {
+        return getSheetData().size();
+    }
+
+    /***
+     * Saves the buffered writes once the number of buffered rows reaches excel_write_checkpoint
+     *
+     * @author vamsikrishna.kayyala
+     */
+    private void checkpoint() {
+        ExcelWriteBuffer buffer = getWriteBuffer();
+        if (writeCheckpoint > 0 && buffer.size() >= writeCheckpoint)
+            buffer.flush();
+    }
+
+    private void checkColumns(Map<String, String> sData) {
+        for (String column : sData.keySet()) {
+            if (!sHeaders.contains(column))
+                throw new IllegalArgumentException("There is no column named " + column + " in " + sWSName);
+        }
+    }
+
     /***
      * Clears the Excel data by excluding the header row alone
      *
      * @author vamsikrishna.kayyala
      */
     public synchronized void clear() {
+        if (writeBehind) {
+            getWriteBuffer().clear(sWSName);
+            return;
+        }
+        loadWorkbook();
         int totalRows = xSheet.getLastRowNum();
         for (int i = 1; i <= totalRows; i++) {
             xSheet.removeRow(xSheet.getRow(i));
@@ -217,6 +423,7 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
         } catch (Exception e) {
             e.printStackTrace();
         }
+        invalidate();
     }
 
     /***
@@ -231,6 +438,13 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
      * excel across different threads, this method does not work as intended.
      */
     public synchronized void write(Map<String, String> sData, int iRow) {
+        if (writeBehind) {
+            checkColumns(sData);
+            getWriteBuffer().write(sWSName, sData, iRow, this::getLastRowNumber);
+            checkpoint();
+            return;
+        }
+        loadWorkbook();
         Row row;
         if (xSheet.getRow(iRow) != null) {
             row = xSheet.getRow(iRow);
@@ -248,6 +462,7 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
         } catch (Exception e) {
             e.printStackTrace();
         }
+        invalidate();
     }
 
     /***
@@ -263,6 +478,19 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
      */
     public synchronized void write(List<Map<String, String>> sData) {
 
+        if (writeBehind) {
+            sData.forEach(this::checkColumns);
+            var buffer = getWriteBuffer();
+            buffer.clear(sWSName);
+            for (Map<String, String> data : sData)
+                buffer.append(sWSName, data, this::getLastRowNumber);
+            checkpoint();
+            var excels = BaseDataParser.DataParsers();
+            excels.remove(sWBPath + sWSName);
+            staticDataParsers.set(excels);
+            return;
+        }
+
         //first clears the data automatically before writing
         clear();
 
@@ -298,6 +526,7 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
         } catch (Exception e) {
             e.printStackTrace();
         }
+        invalidate();
         var excels = BaseDataParser.DataParsers();
         excels.remove(sWBPath + sWSName);
         staticDataParsers.set(excels);
@@ -314,7 +543,13 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
      * excel across different threads, this method does not work as intended.
      */
     public synchronized void write(Map<String, String> sData) {
-
+        if (writeBehind) {
+            checkColumns(sData);
+            getWriteBuffer().append(sWSName, sData, this::getLastRowNumber);
+            checkpoint();
+            return;
+        }
+        loadWorkbook();
         Row row;
         int iRow = xSheet.getLastRowNum() + 1;
         if (xSheet.getRow(iRow) != null) {
@@ -333,5 +568,6 @@ public class ExcelParser extends BaseDataParserImpl<ExcelParser> implements Data
         } catch (Exception e) {
             e.printStackTrace();
         }
+        invalidate();
     }
 }
@@ -7,19 +7,33 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ExcelStatic {
-    public static synchronized Workbook getWorkbook(String sWBPath) throws IOException {
-        FileInputStream oFis = new FileInputStream(sWBPath);
-        // Instantiating the Workbook class based on Excel extension
-        if (sWBPath.contains(".xlsx")) {
-            return new XSSFWorkbook(oFis);
-        } else {
-            return new HSSFWorkbook(oFis);
+    public static Workbook getWorkbook(String sWBPath) throws IOException {
+        try (FileInputStream oFis = new FileInputStream(sWBPath)) {
+            // Instantiating the Workbook class based on Excel extension
+            if (sWBPath.contains(".xlsx")) {
+                return new XSSFWorkbook(oFis);
+            } else {
+                return new HSSFWorkbook(oFis);
+            }
         }
     }
 
-    public static synchronized Sheet getWorksheet(Workbook wb, String sheetName) {
+    public static Sheet getWorksheet(Workbook wb, String sheetName) {
         return wb.getSheet(sheetName);
     }
+
+    public static List<String> getSheetNames(String sWBPath) throws IOException {
+        if (sWBPath.toLowerCase().endsWith(".xlsx"))
+            return ExcelStreamReader.getSheetNames(sWBPath);
+        try (Workbook wb = getWorkbook(sWBPath)) {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < wb.getNumberOfSheets(); i++)
+                names.add(wb.getSheetName(i));
+            return names;
+        }
+    }
 }
@@ -0,0 +1,288 @@
+package com.qa.core.dataHandler;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.InputStream;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the rows of a single xlsx worksheet directly from the sheet xml, one row at a time,
+ * without building the POI user model. Only the shared strings table is kept in memory,
+ * every other row is parsed on demand when the iterator is advanced.
+ *
+ * Cell values are formatted the same way as {@link ExcelParser} does for the user model,
+ * numeric values are rounded, booleans are returned as true/false and errors as empty values.
+ */
+class ExcelStreamReader implements Iterator<LinkedHashMap<String, String>>, Closeable {
+
+    private static final XMLInputFactory XML_FACTORY = createXmlFactory();
+
+    private final String sWBPath;
+    private final OPCPackage pkg;
+    private final InputStream sheetStream;
+    private final XMLStreamReader xml;
+    private final ReadOnlySharedStringsTable strings;
+    private final List<String> headers;
+
+    private int iCurrentRow = 0;
+    private int iPendingRow = -1;
+    private String[] pendingCells;
+    private boolean closed = false;
+
+    private ExcelStreamReader(String sWBPath, String sheetName, List<String> headers) {
+        this.sWBPath = sWBPath;
+        try {
+            pkg = OPCPackage.open(new File(sWBPath), PackageAccess.READ);
+            XSSFReader reader = new XSSFReader(pkg);
+            strings = new ReadOnlySharedStringsTable(pkg);
+            sheetStream = getSheetStream(reader, sheetName);
+            xml = XML_FACTORY.createXMLStreamReader(sheetStream);
+            if (headers == null) {
+                this.headers = readHeaderRow();
+            } else {
+                // skipping the header row as the headers are already known to the caller
+                readHeaderRow();
+                this.headers = headers;
+            }
+        } catch (Exception e) {
+            close();
+            throw new RuntimeException("Error occurred while streaming " + sheetName + " from " + sWBPath, e);
+        }
+    }
+
+    /***
+     * Opens a row stream on the given worksheet. The header row is read and skipped,
+     * remaining rows are parsed lazily as the stream is consumed
+     *
+     * @param sWBPath   - xlsx workbook path
+     * @param sheetName - worksheet name
+     * @param headers   - header names to use for the row maps
+     * @return lazily populated stream of rows, stream must be closed when it is not fully consumed
+     * @author vamsikrishna.kayyala
+     */
+    static Stream<LinkedHashMap<String, String>> stream(String sWBPath, String sheetName, List<String> headers) {
+        ExcelStreamReader reader = new ExcelStreamReader(sWBPath, sheetName, headers);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED), false)
+                .onClose(reader::close);
+    }
+
+    /***
+     * Reads only the header row of the given worksheet
+     *
+     * @param sWBPath   - xlsx workbook path
+     * @param sheetName - worksheet name
+     * @return header names in column order
+     * @author vamsikrishna.kayyala
+     */
+    static List<String> getHeaders(String sWBPath, String sheetName) {
+        try (ExcelStreamReader reader = new ExcelStreamReader(sWBPath, sheetName, null)) {
+            return reader.headers;
+        }
+    }
+
+    /***
+     * Reads the worksheet names of the workbook without parsing any of the sheets
+     *
+     * @param sWBPath - xlsx workbook path
+     * @return worksheet names in workbook order
+     * @author vamsikrishna.kayyala
+     */
+    static List<String> getSheetNames(String sWBPath) {
+        OPCPackage pkg = null;
+        try {
+            pkg = OPCPackage.open(new File(sWBPath), PackageAccess.READ);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+            List<String> names = new ArrayList<>();
+            while (sheets.hasNext()) {
+                try (InputStream ignored = sheets.next()) {
+                    names.add(sheets.getSheetName());
+                }
+            }
+            return names;
+        } catch (Exception e) {
+            throw new RuntimeException("Error occurred while reading sheet names from " + sWBPath, e);
+        } finally {
+            if (pkg != null)
+                pkg.revert();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed)
+            return false;
+        if (pendingCells == null) {
+            try {
+                if (!moveToNextRow()) {
+                    close();
+                    return false;
+                }
+            } catch (XMLStreamException e) {
+                close();
+                throw new RuntimeException("Error occurred while streaming rows from " + sWBPath, e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public LinkedHashMap<String, String> next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        iCurrentRow++;
+        LinkedHashMap<String, String> lRow = new LinkedHashMap<>();
+        if (iPendingRow == iCurrentRow) {
+            for (int i = 0; i < headers.size(); i++)
+                lRow.put(headers.get(i), i < pendingCells.length && pendingCells[i] != null ? pendingCells[i] : "");
+            pendingCells = null;
+        } else {
+            // missing rows are returned as blank rows, same as reading them through the user model
+            for (String sHeader : headers)
+                lRow.put(sHeader, "");
+        }
+        lRow.put("ROW_NUMBER", String.valueOf(iCurrentRow));
+        return lRow;
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            if (xml != null)
+                xml.close();
+            if (sheetStream != null)
+                sheetStream.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            if (pkg != null)
+                pkg.revert();
+        }
+    }
+
+    private static XMLInputFactory createXmlFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static InputStream getSheetStream(XSSFReader reader, String sheetName) throws Exception {
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        while (sheets.hasNext()) {
+            InputStream stream = sheets.next();
+            if (sheets.getSheetName().equals(sheetName))
+                return stream;
+            stream.close();
+        }
+        throw new IllegalArgumentException("There is no worksheet named " + sheetName);
+    }
+
+    private List<String> readHeaderRow() throws XMLStreamException {
+        List<String> lHeaders = new ArrayList<>();
+        if (moveToNextRow()) {
+            for (String header : pendingCells)
+                lHeaders.add(header == null ? "" : header);
+            pendingCells = null;
+            iCurrentRow = iPendingRow;
+        }
+        return lHeaders;
+    }
+
+    /**
+     * Moves the xml cursor to the next row element and keeps its cell values as pending cells.
+     * Returns false once the end of the sheet data is reached
+     */
+    private boolean moveToNextRow() throws XMLStreamException {
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                String ref = xml.getAttributeValue(null, "r");
+                iPendingRow = ref == null ? iPendingRow + 1 : Integer.parseInt(ref) - 1;
+                pendingCells = readCells();
+                return true;
+            } else if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(xml.getLocalName())) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private String[] readCells() throws XMLStreamException {
+        List<String> cells = new ArrayList<>();
+        int column = -1;
+        String type = null;
+        String value = null;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("c".equals(name)) {
+                    String ref = xml.getAttributeValue(null, "r");
+                    column = ref == null ? column + 1 : getColumnIndex(ref);
+                    type = xml.getAttributeValue(null, "t");
+                    value = null;
+                } else if ("v".equals(name) || "t".equals(name)) {
+                    // <t> elements are only present within inline strings, rich text runs are concatenated
+                    value = value == null ? xml.getElementText() : value + xml.getElementText();
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("c".equals(name)) {
+                    while (cells.size() <= column)
+                        cells.add(null);
+                    cells.set(column, getValue(type, value));
+                } else if ("row".equals(name)) {
+                    break;
+                }
+            }
+        }
+        return cells.toArray(new String[0]);
+    }
+
+    private String getValue(String type, String value) {
+        if (value == null)
+            return "";
+        switch (type == null ? "n" : type) {
+            case "s":
+                return strings.getItemAt(Integer.parseInt(value)).getString();
+            case "str":
+            case "inlineStr":
+                return value;
+            case "b":
+                return String.valueOf("1".equals(value));
+            case "n":
+                try {
+                    return String.valueOf(Math.round(Double.parseDouble(value)));
+                } catch (NumberFormatException e) {
+                    return "";
+                }
+            default:
+                return "";
+        }
+    }
+
+    private static int getColumnIndex(String cellReference) {
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char ch = cellReference.charAt(i);
+            if (!Character.isLetter(ch))
+                break;
+            column = column * 26 + (Character.toUpperCase(ch) - 'A' + 1);
+        }
+        return column - 1;
+    }
+}
@@ -0,0 +1,241 @@
+package com.qa.core.dataHandler;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.FileOutputStream;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Write behind buffer of a workbook, shared by the parsers of all the threads. Row writes are
+ * queued and coalesced per sheet and row, so any number of writes into a workbook costs a
+ * single load and a single save of the file when the buffer is flushed.
+ *
+ * Appended rows get their row number when they are queued, which keeps the rows in the same
+ * order as writing them one at a time would. On flush, rows which already exist in the sheet are
+ * updated through the user model and new rows of xlsx workbooks are streamed through SXSSF.
+ */
+final class ExcelWriteBuffer {
+
+    private static final ConcurrentHashMap<String, ExcelWriteBuffer> BUFFERS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                flushAll();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }));
+    }
+
+    private final String sWBPath;
+    private final Map<String, SheetWrites> sheets = new LinkedHashMap<>();
+    private int pendingRows = 0;
+
+    private ExcelWriteBuffer(String sWBPath) {
+        this.sWBPath = sWBPath;
+    }
+
+    static ExcelWriteBuffer getBuffer(String sWBPath) {
+        return BUFFERS.computeIfAbsent(sWBPath, ExcelWriteBuffer::new);
+    }
+
+    /***
+     * Flushes the buffered writes of a workbook, if there are any
+     *
+     * @param sWBPath - Excel workbook path
+     * @author vamsikrishna.kayyala
+     */
+    static void flush(String sWBPath) {
+        ExcelWriteBuffer buffer = BUFFERS.get(sWBPath);
+        if (buffer != null)
+            buffer.flush();
+    }
+
+    /***
+     * Flushes the buffered writes of all the workbooks, a workbook which fails to save does not
+     * keep the others from being saved and its failure is rethrown at the end
+     *
+     * @author vamsikrishna.kayyala
+     */
+    static void flushAll() {
+        RuntimeException failure = null;
+        for (ExcelWriteBuffer buffer : BUFFERS.values()) {
+            try {
+                buffer.flush();
+            } catch (RuntimeException e) {
+                if (failure == null)
+                    failure = e;
+                else
+                    failure.addSuppressed(e);
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /***
+     * Queues removal of all the rows of a sheet except the header row, writes queued
+     * before the clear are dropped
+     *
+     * @param sWSName - Worksheet name
+     * @author vamsikrishna.kayyala
+     */
+    synchronized void clear(String sWSName) {
+        SheetWrites writes = getSheetWrites(sWSName, () -> 0);
+        pendingRows -= writes.rows.size();
+        writes.rows.clear();
+        writes.cleared = true;
+        writes.lastRow = 0;
+    }
+
+    /***
+     * Queues a write into the given row, columns written earlier into the same row are kept
+     *
+     * @param sWSName  - Worksheet name
+     * @param sData    - column names and column values to write
+     * @param iRow     - Row number
+     * @param lastRow  - supplies the last row number of the sheet when the sheet has no queued writes
+     * @author vamsikrishna.kayyala
+     */
+    synchronized void write(String sWSName, Map<String, String> sData, int iRow, IntSupplier lastRow) {
+        SheetWrites writes = getSheetWrites(sWSName, lastRow);
+        Map<String, String> row = writes.rows.get(iRow);
+        if (row == null) {
+            row = new LinkedHashMap<>();
+            writes.rows.put(iRow, row);
+            pendingRows++;
+        }
+        row.putAll(sData);
+        writes.lastRow = Math.max(writes.lastRow, iRow);
+    }
+
+    /***
+     * Queues a write into a new row after the last row of the sheet
+     *
+     * @param sWSName - Worksheet name
+     * @param sData   - column names and column values to write
+     * @param lastRow - supplies the last row number of the sheet when the sheet has no queued writes
+     * @author vamsikrishna.kayyala
+     */
+    synchronized void append(String sWSName, Map<String, String> sData, IntSupplier lastRow) {
+        int iRow = getSheetWrites(sWSName, lastRow).lastRow + 1;
+        write(sWSName, sData, iRow, lastRow);
+    }
+
+    synchronized int size() {
+        return pendingRows;
+    }
+
+    synchronized boolean isEmpty() {
+        return sheets.isEmpty();
+    }
+
+    /***
+     * Writes all the queued rows into the workbook with a single load and save of the file. The
+     * queued rows are kept when the workbook cannot be saved, so a later flush can retry them
+     *
+     * @author vamsikrishna.kayyala
+     */
+    synchronized void flush() {
+        if (sheets.isEmpty())
+            return;
+        List<String> sheetNames = new ArrayList<>(sheets.keySet());
+        try (Workbook book = ExcelStatic.getWorkbook(sWBPath)) {
+            Map<String, Integer> existingRows = new HashMap<>();
+            Map<String, List<String>> headers = new HashMap<>();
+            for (Map.Entry<String, SheetWrites> entry : sheets.entrySet()) {
+                Sheet sheet = ExcelStatic.getWorksheet(book, entry.getKey());
+                SheetWrites writes = entry.getValue();
+                if (writes.cleared) {
+                    int totalRows = sheet.getLastRowNum();
+                    for (int i = 1; i <= totalRows; i++) {
+                        Row row = sheet.getRow(i);
+                        if (row != null)
+                            sheet.removeRow(row);
+                    }
+                }
+                List<String> lHeaders = new ArrayList<>();
+                sheet.getRow(0).cellIterator().forEachRemaining(cell -> lHeaders.add(cell.getStringCellValue()));
+                headers.put(entry.getKey(), lHeaders);
+
+                // rows which exist already can be updated only through the user model
+                int existing = sheet.getLastRowNum();
+                existingRows.put(entry.getKey(), existing);
+                for (Map.Entry<Integer, Map<String, String>> row : writes.rows.headMap(existing, true).entrySet())
+                    writeRow(sheet, row.getKey(), row.getValue(), lHeaders);
+            }
+
+            if (book instanceof XSSFWorkbook) {
+                SXSSFWorkbook wb = new SXSSFWorkbook((XSSFWorkbook) book);
+                wb.setCompressTempFiles(true);
+                try {
+                    for (Map.Entry<String, SheetWrites> entry : sheets.entrySet()) {
+                        Sheet sheet = wb.getSheet(entry.getKey());
+                        writeNewRows(sheet, entry.getValue(), existingRows.get(entry.getKey()), headers.get(entry.getKey()));
+                    }
+                    try (FileOutputStream outputStream = new FileOutputStream(sWBPath)) {
+                        wb.write(outputStream);
+                    }
+                } finally {
+                    wb.dispose();
+                }
+            } else {
+                for (Map.Entry<String, SheetWrites> entry : sheets.entrySet()) {
+                    Sheet sheet = ExcelStatic.getWorksheet(book, entry.getKey());
+                    writeNewRows(sheet, entry.getValue(), existingRows.get(entry.getKey()), headers.get(entry.getKey()));
+                }
+                try (FileOutputStream outputStream = new FileOutputStream(sWBPath)) {
+                    book.write(outputStream);
+                }
+            }
+            sheets.clear();
+            pendingRows = 0;
+        } catch (Exception e) {
+            throw new RuntimeException("Error occurred while writing the buffered rows into " + sWBPath, e);
+        } finally {
+            // the file may have been written partly even when the save failed
+            for (String sWSName : sheetNames)
+                SheetDataCache.invalidate(sWBPath, sWSName);
+        }
+    }
+
+    private SheetWrites getSheetWrites(String sWSName, IntSupplier lastRow) {
+        SheetWrites writes = sheets.get(sWSName);
+        if (writes == null) {
+            writes = new SheetWrites(lastRow.getAsInt());
+            sheets.put(sWSName, writes);
+        }
+        return writes;
+    }
+
+    private static void writeNewRows(Sheet sheet, SheetWrites writes, int existing, List<String> headers) {
+        for (Map.Entry<Integer, Map<String, String>> row : writes.rows.tailMap(existing, false).entrySet())
+            writeRow(sheet, row.getKey(), row.getValue(), headers);
+    }
+
+    private static void writeRow(Sheet sheet, int iRow, Map<String, String> sData, List<String> headers) {
+        Row row = sheet.getRow(iRow) != null ? sheet.getRow(iRow) : sheet.createRow(iRow);
+        for (Map.Entry<String, String> entry : sData.entrySet()) {
+            Cell createCell = row.createCell(headers.indexOf(entry.getKey()));
+            createCell.setCellValue(entry.getValue());
+        }
+    }
+
+    private static final class SheetWrites {
+        private final TreeMap<Integer, Map<String, String>> rows = new TreeMap<>();
+        private boolean cleared = false;
+        private int lastRow;
+
+        SheetWrites(int lastRow) {
+            this.lastRow = lastRow;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.qa.core.dataHandler;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Row filter compiled once from its text form, so rows are tested without splitting or parsing
+ * the filter again. An expression is a list of conditions separated by ;; and a row has to
+ * satisfy all of them. Supported conditions are
+ *
+ * <pre>
+ * column==value          equal to the value
+ * column!=value          not equal to the value
+ * column in (a,b,c)      equal to any of the values
+ * column in 10..20       within the range, both bounds included
+ * column&gt;value, column&gt;=value, column&lt;value, column&lt;=value
+ * column=~regex          whole value matches the regular expression
+ * </pre>
+ *
+ * Ranges and comparisons are numeric when the bounds are numbers, otherwise the values are compared
+ * as text. A row without the column never satisfies a condition on it.
+ *
+ * Conditions refer to their column through its position in {@link #getColumns()}, which lets the
+ * sheet data resolve every column to its ordinal once and test the rows in a single loop.
+ */
+public final class FilterExpression {
+
+    private static final String SEPARATOR = ";;";
+    // two character operators first, so that >= is not taken for >
+    private static final String[] OPERATORS = {"==", "!=", "=~", ">=", "<=", ">", "<"};
+
+    private final List<String> columns;
+    private final Condition[] conditions;
+
+    private FilterExpression(List<String> columns, Condition[] conditions) {
+        this.columns = Collections.unmodifiableList(columns);
+        this.conditions = conditions;
+    }
+
+    /***
+     * Compiles a filter expression, conditions are separated by ;;
+     *
+     * @param expression - filter expression, for example Status==Active;;Age in 18..65
+     * @return compiled filter
+     * @author vamsikrishna.kayyala
+     */
+    public static FilterExpression compile(String expression) {
+        return compile(expression.split(SEPARATOR));
+    }
+
+    /***
+     * Compiles a filter from separate conditions, all the conditions have to be satisfied
+     *
+     * @param filters - conditions, for example {"Status==Active", "Age in 18..65"}
+     * @return compiled filter
+     * @author vamsikrishna.kayyala
+     */
+    public static FilterExpression compile(String[] filters) {
+        List<String> columns = new ArrayList<>();
+        List<Condition> conditions = new ArrayList<>();
+        for (String filter : filters) {
+            if (!filter.isBlank())
+                conditions.add(parse(filter, columns));
+        }
+        return new FilterExpression(columns, conditions.toArray(new Condition[0]));
+    }
+
+    /***
+     * Builds an equality filter from column names and values, the values are taken as they are
+     * and never parsed as operators
+     *
+     * @param filters - map containing column name and values
+     * @return compiled filter
+     * @author vamsikrishna.kayyala
+     */
+    public static FilterExpression equalTo(Map<String, String> filters) {
+        return equalTo(filters, Collections.emptyMap());
+    }
+
+    /***
+     * Builds a filter from column names and values the row must hold and column names and values
+     * the row must not hold, the values are taken as they are and never parsed as operators
+     *
+     * @param filters    - map containing column name and values the row must be equal to
+     * @param exclusions - map containing column name and values the row must not be equal to
+     * @return compiled filter
+     * @author vamsikrishna.kayyala
+     */
+    public static FilterExpression equalTo(Map<String, String> filters, Map<String, String> exclusions) {
+        List<String> columns = new ArrayList<>();
+        List<Condition> conditions = new ArrayList<>();
+        for (Map.Entry<String, String> filter : filters.entrySet())
+            conditions.add(new Equals(getColumn(columns, filter.getKey()), filter.getValue(), false));
+        for (Map.Entry<String, String> exclusion : exclusions.entrySet())
+            conditions.add(new Equals(getColumn(columns, exclusion.getKey()), exclusion.getValue(), true));
+        return new FilterExpression(columns, conditions.toArray(new Condition[0]));
+    }
+
+    /***
+     * Returns the distinct columns used by the conditions, conditions refer to a column through
+     * its position in this list
+     *
+     * @return column names
+     * @author vamsikrishna.kayyala
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /***
+     * Tests a row against all the conditions
+     *
+     * @param cells - returns the value of the column at the given position of {@link #getColumns()},
+     *              or null if the row does not have the column
+     * @return true if the row satisfies all the conditions
+     * @author vamsikrishna.kayyala
+     */
+    public boolean test(IntFunction<String> cells) {
+        for (Condition condition : conditions) {
+            String value = cells.apply(condition.column);
+            if (value == null || !condition.test(value))
+                return false;
+        }
+        return true;
+    }
+
+    /***
+     * Tests a row map against all the conditions
+     *
+     * @param row - row represented as a map of column name and column value
+     * @return true if the row satisfies all the conditions
+     * @author vamsikrishna.kayyala
+     */
+    public boolean test(Map<String, String> row) {
+        return test(column -> row.get(columns.get(column)));
+    }
+
+    private static Condition parse(String filter, List<String> columns) {
+        int in = filter.indexOf(" in ");
+        int position = -1;
+        String operator = null;
+        for (String candidate : OPERATORS) {
+            int index = filter.indexOf(candidate);
+            if (index > 0 && (position < 0 || index < position)) {
+                position = index;
+                operator = candidate;
+            }
+        }
+        if (in > 0 && (position < 0 || in < position)) {
+            int column = getColumn(columns, filter.substring(0, in).trim());
+            return parseIn(filter, column, filter.substring(in + 4).trim());
+        }
+        if (operator == null)
+            throw new IllegalArgumentException("Invalid filter format: " + filter);
+
+        int column = getColumn(columns, filter.substring(0, position).trim());
+        String value = filter.substring(position + operator.length());
+        switch (operator) {
+            case "==":
+                return new Equals(column, value, false);
+            case "!=":
+                return new Equals(column, value, true);
+            case "=~":
+                try {
+                    return new Matches(column, Pattern.compile(value));
+                } catch (PatternSyntaxException e) {
+                    throw new IllegalArgumentException("Invalid regular expression in filter: " + filter, e);
+                }
+            case ">=":
+                return new Range(column, new Bound(value.trim()), true, null, false);
+            case ">":
+                return new Range(column, new Bound(value.trim()), false, null, false);
+            case "<=":
+                return new Range(column, null, false, new Bound(value.trim()), true);
+            default:
+                return new Range(column, null, false, new Bound(value.trim()), false);
+        }
+    }
+
+    private static Condition parseIn(String filter, int column, String operand) {
+        if (operand.startsWith("(") && operand.endsWith(")")) {
+            Set<String> values = new HashSet<>();
+            for (String value : operand.substring(1, operand.length() - 1).split(","))
+                values.add(value.trim());
+            return new In(column, values);
+        }
+        int range = operand.indexOf("..");
+        if (range < 0)
+            throw new IllegalArgumentException("Invalid filter format: " + filter
+                    + ", expected column in (a,b,c) or column in from..to");
+        return new Range(column, new Bound(operand.substring(0, range).trim()), true,
+                new Bound(operand.substring(range + 2).trim()), true);
+    }
+
+    private static int getColumn(List<String> columns, String column) {
+        int index = columns.indexOf(column);
+        if (index < 0) {
+            columns.add(column);
+            index = columns.size() - 1;
+        }
+        return index;
+    }
+
+    private static BigDecimal toNumber(String value) {
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private abstract static class Condition {
+        final int column;
+
+        Condition(int column) {
+            this.column = column;
+        }
+
+        abstract boolean test(String value);
+    }
+
+    private static final class Equals extends Condition {
+        private final String expected;
+        private final boolean negate;
+
+        Equals(int column, String expected, boolean negate) {
+            super(column);
+            this.expected = expected;
+            this.negate = negate;
+        }
+
+        @Override
+        boolean test(String value) {
+            return expected.equals(value) != negate;
+        }
+    }
+
+    private static final class In extends Condition {
+        private final Set<String> values;
+
+        In(int column, Set<String> values) {
+            super(column);
+            this.values = values;
+        }
+
+        @Override
+        boolean test(String value) {
+            return values.contains(value);
+        }
+    }
+
+    private static final class Matches extends Condition {
+        private final Pattern pattern;
+
+        Matches(int column, Pattern pattern) {
+            super(column);
+            this.pattern = pattern;
+        }
+
+        @Override
+        boolean test(String value) {
+            return pattern.matcher(value).matches();
+        }
+    }
+
+    private static final class Range extends Condition {
+        private final Bound lower;
+        private final boolean lowerInclusive;
+        private final Bound upper;
+        private final boolean upperInclusive;
+
+        Range(int column, Bound lower, boolean lowerInclusive, Bound upper, boolean upperInclusive) {
+            super(column);
+            this.lower = lower;
+            this.lowerInclusive = lowerInclusive;
+            this.upper = upper;
+            this.upperInclusive = upperInclusive;
+        }
+
+        @Override
+        boolean test(String value) {
+            if (lower != null) {
+                Integer compared = lower.compareTo(value);
+                if (compared == null || compared > 0 || (compared == 0 && !lowerInclusive))
+                    return false;
+            }
+            if (upper != null) {
+                Integer compared = upper.compareTo(value);
+                if (compared == null || compared < 0 || (compared == 0 && !upperInclusive))
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Range bound parsed once, numeric bounds compare only with numeric values
+     */
+    private static final class Bound {
+        private final String text;
+        private final BigDecimal number;
+
+        Bound(String text) {
+            this.text = text;
+            this.number = toNumber(text);
+        }
+
+        /**
+         * Compares the bound with a value, returns null when a numeric bound meets a value which
+         * is not a number
+         */
+        Integer compareTo(String value) {
+            if (number == null)
+                return text.compareTo(value);
+            BigDecimal other = toNumber(value);
+            return other == null ? null : number.compareTo(other);
+        }
+    }
+}
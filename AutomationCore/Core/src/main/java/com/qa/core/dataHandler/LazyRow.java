@@ -0,0 +1,265 @@
+package com.qa.core.dataHandler;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Row whose $$expression$$ and &lt;&lt;property&gt;&gt; placeholders are resolved only when a cell is
+ * first read. The resolved value replaces the raw value within the row, so every cell is
+ * processed at most once and cells which are never read are never processed.
+ *
+ * Cells without placeholders hold their final value from the start. Bulk views such as
+ * {@link #values()} and {@link #entrySet()} resolve the remaining cells before they are returned,
+ * which keeps equals, hashCode, toString and copies of the row identical to an eagerly processed row.
+ *
+ * A cell is resolved when it is first read, not when the row is read from the sheet. Expressions
+ * such as dates or random values take the value of that moment, and &lt;&lt;property&gt;&gt;
+ * placeholders take the run configuration of the thread reading the cell at that moment, so a
+ * property changed between reading the row and reading the cell is seen by the cell. Once resolved,
+ * a cell keeps its value. Cells a filter was compared with are resolved when the row is filtered
+ * and hold the value the row matched on. Removing a cell through the key set or its iterator drops
+ * the cell without resolving it, while {@link #remove(Object)} resolves the value it returns.
+ */
+final class LazyRow extends LinkedHashMap<String, String> {
+
+    private final transient Function<String, String> resolver;
+    private transient Set<Object> pending;
+
+    LazyRow(Map<String, String> row, Function<String, String> resolver) {
+        this(row, resolver, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a row whose given cells are resolved already, such as the cells a filter was compared with
+     */
+    LazyRow(Map<String, String> row, Function<String, String> resolver, Map<String, String> resolved) {
+        super(row);
+        this.resolver = resolver;
+        for (Map.Entry<String, String> entry : resolved.entrySet()) {
+            if (row.containsKey(entry.getKey()))
+                super.put(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, String> entry : row.entrySet()) {
+            String value = entry.getValue();
+            if (value != null && !resolved.containsKey(entry.getKey()) && (value.contains("$$") || value.contains("<<"))) {
+                if (pending == null)
+                    pending = new HashSet<>();
+                pending.add(entry.getKey());
+            }
+        }
+    }
+
+    private synchronized void resolve(Object key) {
+        if (pending != null && pending.remove(key)) {
+            if (pending.isEmpty())
+                pending = null;
+            String value = super.get(key);
+            if (value != null)
+                super.put((String) key, resolver.apply(value));
+        }
+    }
+
+    private synchronized void drop(Object key) {
+        if (pending != null && pending.remove(key) && pending.isEmpty())
+            pending = null;
+    }
+
+    private synchronized void resolveAll() {
+        if (pending != null) {
+            for (Object key : new ArrayList<>(pending))
+                resolve(key);
+        }
+    }
+
+    /***
+     * Returns the value of a cell without resolving it, a cell which is not read yet holds its raw value
+     *
+     * @param key - column name
+     * @return raw or resolved value of the cell
+     * @author vamsikrishna.kayyala
+     */
+    synchronized String getUnresolved(Object key) {
+        return super.get(key);
+    }
+
+    @Override
+    public synchronized String get(Object key) {
+        resolve(key);
+        return super.get(key);
+    }
+
+    @Override
+    public synchronized String getOrDefault(Object key, String defaultValue) {
+        resolve(key);
+        return super.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        Set<String> keys = super.keySet();
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                Iterator<String> iterator = keys.iterator();
+                return new Iterator<>() {
+                    private String current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        current = iterator.next();
+                        return current;
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                        drop(current);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return keys.contains(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                drop(o);
+                return keys.remove(o);
+            }
+
+            @Override
+            public void clear() {
+                LazyRow.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        resolveAll();
+        return super.containsValue(value);
+    }
+
+    @Override
+    public Collection<String> values() {
+        resolveAll();
+        return super.values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        resolveAll();
+        return super.entrySet();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super String> action) {
+        resolveAll();
+        super.forEach(action);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super String, ? extends String> function) {
+        resolveAll();
+        super.replaceAll(function);
+    }
+
+    @Override
+    public String put(String key, String value) {
+        resolve(key);
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends String> m) {
+        for (String key : m.keySet())
+            resolve(key);
+        super.putAll(m);
+    }
+
+    @Override
+    public String putIfAbsent(String key, String value) {
+        resolve(key);
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public String remove(Object key) {
+        // the removed value is returned, so it is resolved as a read would
+        resolve(key);
+        return super.remove(key);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        resolve(key);
+        return super.remove(key, value);
+    }
+
+    @Override
+    public String replace(String key, String value) {
+        resolve(key);
+        return super.replace(key, value);
+    }
+
+    @Override
+    public boolean replace(String key, String oldValue, String newValue) {
+        resolve(key);
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public String computeIfAbsent(String key, Function<? super String, ? extends String> mappingFunction) {
+        resolve(key);
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public String computeIfPresent(String key, BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        resolve(key);
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public String compute(String key, BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        resolve(key);
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public String merge(String key, String value, BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        resolve(key);
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public synchronized void clear() {
+        pending = null;
+        super.clear();
+    }
+
+    @Override
+    public Object clone() {
+        resolveAll();
+        return new LinkedHashMap<>(this);
+    }
+
+    private Object writeReplace() {
+        // serialized rows are plain, fully resolved rows
+        return new LinkedHashMap<>(this);
+    }
+}
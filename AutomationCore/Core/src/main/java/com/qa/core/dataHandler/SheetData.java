@@ -0,0 +1,271 @@
+package com.qa.core.dataHandler;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Immutable, parsed content of a single worksheet or csv file. Instances are shared across
+ * all the threads through {@link SheetDataCache}, so rows are never handed out directly,
+ * every read returns its own copy of the rows which callers are free to modify.
+ *
+ * Rows are kept either as maps or, when columnar storage is requested, in a dictionary
+ * encoded {@link ColumnarRows} store which builds the row maps only when they are read.
+ *
+ * Keyed lookups are served from hash indexes built per column on first use. The indexes live
+ * as long as this instance, so they are dropped together with the cache entry on every write.
+ */
+final class SheetData {
+
+    private final String sWBPath;
+    private final String sWSName;
+    private final List<String> headers;
+    private final List<LinkedHashMap<String, String>> rows;
+    private final boolean columnar;
+    private final ConcurrentHashMap<String, ColumnIndex> indexes = new ConcurrentHashMap<>();
+
+    private SheetData(String sWBPath, String sWSName, List<String> headers,
+                      List<LinkedHashMap<String, String>> rows, boolean columnar) {
+        this.sWBPath = sWBPath;
+        this.sWSName = sWSName;
+        this.headers = headers;
+        this.rows = rows;
+        this.columnar = columnar;
+    }
+
+    String getWorkbookPath() {
+        return sWBPath;
+    }
+
+    String getSheetName() {
+        return sWSName;
+    }
+
+    List<String> getHeaders() {
+        return headers;
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    /***
+     * Returns a copy of all the rows of the sheet
+     *
+     * @return collection of rows where each row is represented as a map of column
+     *         name and column value
+     * @author vamsikrishna.kayyala
+     */
+    List<LinkedHashMap<String, String>> getRows() {
+        return stream().collect(Collectors.toList());
+    }
+
+    /***
+     * Streams a copy of the rows of the sheet, rows are copied only when they are consumed
+     *
+     * @return stream of rows where each row is represented as a map of column name and column value
+     * @author vamsikrishna.kayyala
+     */
+    Stream<LinkedHashMap<String, String>> stream() {
+        // columnar rows build a new map on every access, so there is nothing shared to copy
+        return columnar ? rows.stream() : rows.stream().map(LinkedHashMap::new);
+    }
+
+    /***
+     * Returns a copy of a single row of the sheet
+     *
+     * @param index - row index within the sheet data
+     * @return row represented as a map of column name and column value
+     * @author vamsikrishna.kayyala
+     */
+    LinkedHashMap<String, String> getRow(int index) {
+        return columnar ? rows.get(index) : new LinkedHashMap<>(rows.get(index));
+    }
+
+    /***
+     * Returns the hash index of a column, the index is built on the first lookup of the column
+     *
+     * @param column - column name to index
+     * @return index of the raw column values
+     * @author vamsikrishna.kayyala
+     */
+    ColumnIndex getIndex(String column) {
+        return indexes.computeIfAbsent(column, this::buildIndex);
+    }
+
+    /***
+     * Finds the rows satisfying a filter in a single pass over the sheet data. Columns of columnar
+     * storage are resolved to their ordinal once and read without building the row maps
+     *
+     * @param filter   - compiled filter
+     * @param resolver - turns a raw cell value into the value to compare
+     * @return positions of the matching rows
+     * @author vamsikrishna.kayyala
+     */
+    int[] filter(FilterExpression filter, UnaryOperator<String> resolver) {
+        int[][] matches = {new int[16]};
+        int[] count = {0};
+        forEachMatch(filter, resolver, null, row -> {
+            if (count[0] == matches[0].length)
+                matches[0] = Arrays.copyOf(matches[0], count[0] * 2);
+            matches[0][count[0]++] = row;
+        });
+        return Arrays.copyOf(matches[0], count[0]);
+    }
+
+    /***
+     * Reads the rows satisfying a filter in a single pass over the sheet data, only the matching
+     * rows are copied. The values the resolver returned for the filter columns of a matching row
+     * are handed to the builder along with the row, so they need not be resolved again
+     *
+     * @param filter   - compiled filter
+     * @param resolver - turns a raw cell value into the value to compare
+     * @param builder  - builds the result from a copy of the row and the resolved filter cells
+     * @return built rows in the order of the sheet
+     * @author vamsikrishna.kayyala
+     */
+    <T> List<T> filterRows(FilterExpression filter, UnaryOperator<String> resolver,
+                           BiFunction<LinkedHashMap<String, String>, Map<String, String>, T> builder) {
+        List<T> matches = new ArrayList<>();
+        Map<String, String> resolved = new HashMap<>();
+        forEachMatch(filter, resolver, resolved, row -> matches.add(builder.apply(getRow(row), new HashMap<>(resolved))));
+        return matches;
+    }
+
+    private void forEachMatch(FilterExpression filter, UnaryOperator<String> resolver, Map<String, String> resolved,
+                              IntConsumer onMatch) {
+        List<String> columns = filter.getColumns();
+        ColumnarRows columnarRows = rows instanceof ColumnarRows ? (ColumnarRows) rows : null;
+        int[] ordinals = new int[columns.size()];
+        for (int i = 0; i < ordinals.length; i++)
+            ordinals[i] = columnarRows != null ? columnarRows.getColumnIndex(columns.get(i)) : -1;
+
+        int[] row = {0};
+        IntFunction<String> cells = column -> {
+            // ROW_NUMBER is not a column of the columnar storage, it is read from the row view
+            String value = ordinals[column] >= 0 ? columnarRows.getValue(row[0], ordinals[column])
+                    : rows.get(row[0]).get(columns.get(column));
+            if (value == null)
+                return null;
+            if (resolved == null)
+                return resolver.apply(value);
+            return resolved.computeIfAbsent(columns.get(column), name -> resolver.apply(value));
+        };
+        for (; row[0] < rows.size(); row[0]++) {
+            if (resolved != null)
+                resolved.clear();
+            if (filter.test(cells))
+                onMatch.accept(row[0]);
+        }
+    }
+
+    /***
+     * Reads the given cells of a single row without copying the row
+     *
+     * @param index   - row index within the sheet data
+     * @param columns - column names to read
+     * @return cell values in the order of the columns, null for the cells the row does not have
+     * @author vamsikrishna.kayyala
+     */
+    String[] getValues(int index, List<String> columns) {
+        String[] values = new String[columns.size()];
+        if (rows instanceof ColumnarRows) {
+            ColumnarRows columnarRows = (ColumnarRows) rows;
+            LinkedHashMap<String, String> row = null;
+            for (int i = 0; i < values.length; i++) {
+                int column = columnarRows.getColumnIndex(columns.get(i));
+                if (column >= 0) {
+                    values[i] = columnarRows.getValue(index, column);
+                } else {
+                    if (row == null)
+                        row = rows.get(index);
+                    values[i] = row.get(columns.get(i));
+                }
+            }
+        } else {
+            Map<String, String> row = rows.get(index);
+            for (int i = 0; i < values.length; i++)
+                values[i] = row.get(columns.get(i));
+        }
+        return values;
+    }
+
+    private ColumnIndex buildIndex(String column) {
+        int iColumn = rows instanceof ColumnarRows ? ((ColumnarRows) rows).getColumnIndex(column) : -1;
+        Map<String, List<Integer>> positions = new HashMap<>();
+        boolean hasPlaceholders = false;
+        for (int i = 0; i < rows.size(); i++) {
+            String value = iColumn >= 0 ? ((ColumnarRows) rows).getValue(i, iColumn) : rows.get(i).get(column);
+            if (value == null)
+                continue;
+            hasPlaceholders = hasPlaceholders || value.contains("$$") || value.contains("<<");
+            positions.computeIfAbsent(value, k -> new ArrayList<>()).add(i);
+        }
+        Map<String, int[]> index = new HashMap<>();
+        positions.forEach((value, lRows) -> index.put(value, lRows.stream().mapToInt(Integer::intValue).toArray()));
+        return new ColumnIndex(index, hasPlaceholders);
+    }
+
+    /**
+     * Row positions of every distinct raw value of a column. Values holding $$ or << placeholders
+     * can change once the rows are processed, so callers must not trust such an index for
+     * processed lookups and should scan the rows instead
+     */
+    static final class ColumnIndex {
+        private static final int[] NO_ROWS = new int[0];
+
+        private final Map<String, int[]> positions;
+        private final boolean hasPlaceholders;
+
+        private ColumnIndex(Map<String, int[]> positions, boolean hasPlaceholders) {
+            this.positions = positions;
+            this.hasPlaceholders = hasPlaceholders;
+        }
+
+        boolean hasPlaceholders() {
+            return hasPlaceholders;
+        }
+
+        int[] find(String value) {
+            return positions.getOrDefault(value, NO_ROWS);
+        }
+    }
+
+    /**
+     * Collects the parsed rows one at a time into either map based or columnar storage
+     */
+    static final class Builder {
+        private final String sWBPath;
+        private final String sWSName;
+        private final List<String> headers;
+        private final List<LinkedHashMap<String, String>> rows;
+        private final ColumnarRows.Builder columnarRows;
+
+        Builder(String sWBPath, String sWSName, List<String> headers, boolean columnar) {
+            this.sWBPath = sWBPath;
+            this.sWSName = sWSName;
+            this.headers = Collections.unmodifiableList(new ArrayList<>(headers));
+            this.rows = columnar ? null : new ArrayList<>();
+            this.columnarRows = columnar ? new ColumnarRows.Builder(headers) : null;
+        }
+
+        Builder add(LinkedHashMap<String, String> row) {
+            if (columnarRows != null)
+                columnarRows.add(row);
+            else
+                rows.add(row);
+            return this;
+        }
+
+        SheetData build() {
+            if (columnarRows != null)
+                return new SheetData(sWBPath, sWSName, headers, columnarRows.build(), true);
+            return new SheetData(sWBPath, sWSName, headers, Collections.unmodifiableList(rows), false);
+        }
+    }
+}
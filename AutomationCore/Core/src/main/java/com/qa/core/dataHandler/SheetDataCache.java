@@ -0,0 +1,97 @@
+package com.qa.core.dataHandler;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Process wide cache of parsed sheet data, shared by the parsers of every TestNG thread.
+ * Entries are keyed by file path and sheet name and are tied to the last modified time of the
+ * file, so a file changed on disk is parsed again on the next access. Each sheet is loaded only
+ * once, threads asking for a sheet which is being loaded wait only for that sheet.
+ */
+final class SheetDataCache {
+
+    private static final ConcurrentHashMap<String, CachedValue<SheetData>> SHEETS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, CachedValue<List<String>>> SHEET_NAMES = new ConcurrentHashMap<>();
+
+    private SheetDataCache() {}
+
+    /***
+     * Returns the parsed data of a sheet, loading it with the given loader if it was not loaded
+     * yet or if the file was modified after it was loaded
+     *
+     * @param sWBPath - workbook or csv file path
+     * @param sWSName - worksheet name
+     * @param loader  - parses the sheet when it is not available in the cache
+     * @return parsed sheet data
+     * @author vamsikrishna.kayyala
+     */
+    static SheetData getSheetData(String sWBPath, String sWSName, Supplier<SheetData> loader) {
+        return get(SHEETS, getKey(sWBPath, sWSName), sWBPath, loader);
+    }
+
+    /***
+     * Returns the worksheet names of a workbook, loading them with the given loader if they
+     * were not loaded yet or if the file was modified after they were loaded
+     *
+     * @param sWBPath - workbook path
+     * @param loader  - reads the sheet names when they are not available in the cache
+     * @return worksheet names
+     * @author vamsikrishna.kayyala
+     */
+    static List<String> getSheetNames(String sWBPath, Supplier<List<String>> loader) {
+        return get(SHEET_NAMES, sWBPath, sWBPath, loader);
+    }
+
+    /***
+     * Removes the cached data of a sheet, to be called whenever the parser writes into the file
+     *
+     * @param sWBPath - workbook or csv file path
+     * @param sWSName - worksheet name
+     * @author vamsikrishna.kayyala
+     */
+    static void invalidate(String sWBPath, String sWSName) {
+        SHEETS.remove(getKey(sWBPath, sWSName));
+        SHEET_NAMES.remove(sWBPath);
+    }
+
+    private static String getKey(String sWBPath, String sWSName) {
+        return sWBPath + "::" + sWSName;
+    }
+
+    private static <T> T get(ConcurrentHashMap<String, CachedValue<T>> cache, String key,
+                             String sWBPath, Supplier<T> loader) {
+        long lastModified = new File(sWBPath).lastModified();
+        return cache.compute(key, (k, cached) ->
+                cached != null && cached.lastModified == lastModified
+                        ? cached
+                        : new CachedValue<>(lastModified, loader)).get();
+    }
+
+    private static final class CachedValue<T> {
+        private final long lastModified;
+        private final Supplier<T> loader;
+        private volatile T value;
+
+        CachedValue(long lastModified, Supplier<T> loader) {
+            this.lastModified = lastModified;
+            this.loader = loader;
+        }
+
+        T get() {
+            T result = value;
+            if (result == null) {
+                synchronized (this) {
+                    result = value;
+                    if (result == null) {
+                        result = loader.get();
+                        value = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
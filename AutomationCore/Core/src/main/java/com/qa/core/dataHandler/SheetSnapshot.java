@@ -0,0 +1,200 @@
+package com.qa.core.dataHandler;
+
+import com.qa.core.context.CoreParameters;
+import com.qa.core.util.BeanUtil;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Binary snapshots of parsed sheets, stored under the build folder and keyed by the SHA-256 hash
+ * of the source file. A later run finds the snapshot of an unchanged file and maps it into memory
+ * instead of parsing the workbook again, a changed file gets a new hash and a new snapshot.
+ *
+ * Snapshot layout, all numbers are big endian ints:
+ * magic, version, sheet name as byte length followed by UTF-8 bytes, string count, strings as byte length followed by UTF-8 bytes,
+ * header count, header string ids, row count, and per row the row number followed by one
+ * string id per header, -1 marks a missing value.
+ */
+final class SheetSnapshot {
+
+    private static final int MAGIC = 0x51415344;
+    private static final int VERSION = 2;
+    private static final int MISSING = -1;
+    private static final String ROW_NUMBER = "ROW_NUMBER";
+    private static final String SNAPSHOT_FOLDER = "data_snapshots";
+
+    private SheetSnapshot() {}
+
+    /***
+     * Returns the sheet data from its snapshot, the sheet is parsed with the given loader and a
+     * snapshot is written when there is no valid snapshot of the current file content
+     *
+     * @param sWBPath  - workbook or csv file path
+     * @param sWSName  - worksheet name
+     * @param columnar - true to keep the rows in columnar storage
+     * @param loader   - parses the sheet from the source file
+     * @return parsed sheet data
+     * @author vamsikrishna.kayyala
+     */
+    static SheetData load(String sWBPath, String sWSName, boolean columnar, Supplier<SheetData> loader) {
+        File folder = new File(BeanUtil.getBean(CoreParameters.class).getTargetFolderPath(), SNAPSHOT_FOLDER);
+        String prefix;
+        File snapshot;
+        try {
+            // the readable name is not unique, "Sheet 1" and "Sheet_1" only differ by the hash of the raw name
+            prefix = hash(sWBPath.getBytes(StandardCharsets.UTF_8)).substring(0, 16) + "_"
+                    + sWSName.replaceAll("[^A-Za-z0-9_-]", "_") + "_"
+                    + hash(sWSName.getBytes(StandardCharsets.UTF_8)).substring(0, 16) + "_";
+            snapshot = new File(folder, prefix + hashFile(sWBPath) + ".snapshot");
+        } catch (Exception e) {
+            e.printStackTrace();
+            return loader.get();
+        }
+
+        if (snapshot.isFile()) {
+            try {
+                return read(snapshot, sWBPath, sWSName, columnar);
+            } catch (Exception e) {
+                // a corrupt or outdated snapshot is replaced with a new one
+                System.out.println("Ignoring the data snapshot " + snapshot + ": " + e.getMessage());
+            }
+        }
+
+        SheetData sheetData = loader.get();
+        try {
+            write(folder, prefix, snapshot, sWSName, sheetData);
+        } catch (Exception e) {
+            System.out.println("Unable to write the data snapshot " + snapshot + ": " + e.getMessage());
+        }
+        return sheetData;
+    }
+
+    private static SheetData read(File snapshot, String sWBPath, String sWSName, boolean columnar) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                throw new IOException("unsupported snapshot format");
+            String sheetName = readString(buffer);
+            if (!sheetName.equals(sWSName))
+                throw new IOException("snapshot belongs to the sheet " + sheetName);
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++)
+                strings[i] = readString(buffer);
+
+            List<String> headers = new ArrayList<>();
+            int headerCount = buffer.getInt();
+            for (int i = 0; i < headerCount; i++)
+                headers.add(strings[buffer.getInt()]);
+
+            var sheetData = new SheetData.Builder(sWBPath, sWSName, headers, columnar);
+            int rowCount = buffer.getInt();
+            for (int iRow = 0; iRow < rowCount; iRow++) {
+                int rowNumber = buffer.getInt();
+                LinkedHashMap<String, String> row = new LinkedHashMap<>();
+                for (String header : headers) {
+                    int id = buffer.getInt();
+                    if (id != MISSING)
+                        row.put(header, strings[id]);
+                }
+                if (rowNumber != MISSING)
+                    row.put(ROW_NUMBER, String.valueOf(rowNumber));
+                sheetData.add(row);
+            }
+            return sheetData.build();
+        }
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void write(File folder, String prefix, File snapshot, String sWSName, SheetData sheetData) throws IOException {
+        Files.createDirectories(folder.toPath());
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        ByteArrayOutputStream rows = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(rows)) {
+            List<String> headers = sheetData.getHeaders();
+            out.writeInt(headers.size());
+            for (String header : headers)
+                out.writeInt(getId(ids, header));
+            out.writeInt(sheetData.size());
+            for (LinkedHashMap<String, String> row : sheetData.getRows()) {
+                String rowNumber = row.get(ROW_NUMBER);
+                out.writeInt(rowNumber == null ? MISSING : Integer.parseInt(rowNumber));
+                for (String header : headers) {
+                    String value = row.get(header);
+                    out.writeInt(value == null ? MISSING : getId(ids, value));
+                }
+            }
+        }
+
+        // written to a temporary file first, so other JVMs never map a partially written snapshot
+        File temp = File.createTempFile(prefix, ".tmp", folder);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, sWSName);
+            out.writeInt(ids.size());
+            for (String value : ids.keySet())
+                writeString(out, value);
+            rows.writeTo(out);
+        }
+        Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // snapshots of the earlier content of the same sheet are not needed anymore
+        File[] stale = folder.listFiles((dir, name) -> name.startsWith(prefix)
+                && name.length() == snapshot.getName().length() && name.endsWith(".snapshot")
+                && !name.equals(snapshot.getName()));
+        if (stale != null) {
+            for (File file : stale)
+                file.delete();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int getId(Map<String, Integer> ids, String value) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = ids.size();
+            ids.put(value, id);
+        }
+        return id;
+    }
+
+    private static String hashFile(String sWBPath) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new FileInputStream(sWBPath)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0)
+                digest.update(buffer, 0, read);
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String hash(byte[] bytes) throws Exception {
+        return toHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return sb.toString();
+    }
+}
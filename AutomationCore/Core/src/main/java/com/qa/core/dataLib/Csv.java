@@ -10,12 +10,13 @@ import org.springframework.stereotype.Component;
 import javax.annotation.PostConstruct;
 import java.io.*;
 import java.net.URL;
-import java.net.URLConnection;
-import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 @Lazy
@@ -25,9 +26,9 @@ public class Csv {
     private final ReportManager reporter;
     private final RunConfiguration configuration;
 
-    private static Map<String, Integer> csvFileCounter = new HashMap<>();
-    private static Map<String, String> csvFileNames = new HashMap<>();
-    private static Map<String, String> csvHeaders = new HashMap<>();
+    private static Map<String, Integer> csvFileCounter = new ConcurrentHashMap<>();
+    private static Map<String, String> csvFileNames = new ConcurrentHashMap<>();
+    private static Map<String, String> csvHeaders = new ConcurrentHashMap<>();
     private static Integer no_of_records_per_csv;
 
     public Csv(ReportManager reporter, RunConfiguration configuration) {
@@ -40,36 +41,33 @@ public class Csv {
         no_of_records_per_csv = Integer.parseInt(configuration.getProperty("number_of_records_per_csv"));
     }
 
+    /***
+     * Reads all the rows of a csv url, use {@link #stream(String)} for large csv files
+     *
+     * @param url - csv url
+     * @return rows of the csv where each row is represented as a map of column name and column value
+     * @author vamsikrishna.kayyala
+     */
     public List<LinkedHashMap<String, String>> read(String url) throws IOException {
-        List<LinkedHashMap<String, String>> lReturn = new ArrayList<>();
-        if (!url.contentEquals("")) {
-            URL uri = new URL(url);
-            URLConnection urlConn = uri.openConnection();
-            InputStreamReader inputCSV = new InputStreamReader((urlConn).getInputStream());
-            BufferedReader br = new BufferedReader(inputCSV);
-            String line;
-            int iRow = 1;
-            List<String> sHeaders = new ArrayList<String>();
-
-            while ((line = br.readLine()) != null) {
-                String[] values = line.split(","); // separator
-                if (iRow == 1) {
-                    for (String header : values) {
-                        sHeaders.add(header);
-                    }
-                } else {
-                    LinkedHashMap<String, String> row = new LinkedHashMap<>();
-                    int index = 0;
-                    for (String data : values) {
-                        row.put(sHeaders.get(index), data);
-                        index++;
-                    }
-                    lReturn.add(row);
-                }
-                iRow++;
-            }
+        try (var rows = stream(url)) {
+            return rows.collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-        return lReturn;
+    }
+
+    /***
+     * Streams the rows of a csv url, rows are downloaded only as the stream is consumed, so the
+     * stream must be closed when it is not consumed completely
+     *
+     * @param url - csv url, the content may be gzip compressed
+     * @return stream of rows where each row is represented as a map of column name and column value
+     * @author vamsikrishna.kayyala
+     */
+    public Stream<LinkedHashMap<String, String>> stream(String url) throws IOException {
+        if (url.contentEquals(""))
+            return Stream.empty();
+        return new CsvUrlReader(new URL(url), getRetries()).stream();
     }
 
     public synchronized void create(String fileName) {
@@ -104,68 +102,48 @@ public class Csv {
         }
     }
 
-    public synchronized void write(String fileName, String data) {
+    public void write(String fileName, String data) {
+        write(fileName, Collections.singletonList(data));
+    }
+
+    public void write(String fileName, List<String> data) {
         try {
-            String originalFileName = fileName;
-            fileName = getFileName(fileName);
-            File file = new File(ReportManager.resultsFolder + fileName);
-            List<String> lines = FileUtils.readLines(file);
-            if (lines.size() > no_of_records_per_csv) {
-                incrementFileCounter(originalFileName);
-                updateFileName(originalFileName);
-                create(originalFileName, "");
-                fileName = getFileName(originalFileName);
-                file = new File(ReportManager.resultsFolder + fileName);
-                lines = FileUtils.readLines(file);
-            }
-            lines.add(data);
-            FileUtils.writeLines(file, lines);
+            getWriter(fileName).append(data);
         } catch (Exception e) {
             reporter.report("Error occurred while writing " +
                     data + " to a csv file named " + fileName, e);
         }
     }
 
-    public synchronized void write(String fileName, List<String> data) {
-        try {
-            String originalFileName = fileName;
-            fileName = getFileName(fileName);
-            File file = new File(ReportManager.resultsFolder + fileName);
-            List<String> lines = FileUtils.readLines(file, (Charset) null);
-            if (lines.size() > no_of_records_per_csv) {
-                incrementFileCounter(originalFileName);
-                updateFileName(originalFileName);
-                create(originalFileName, "");
+    /**
+     * Returns the writer of the current file of a csv, rolls over to a new file once the current
+     * file holds more than number_of_records_per_csv lines
+     */
+    private CsvWriter getWriter(String originalFileName) {
+        String fileName = getFileName(originalFileName);
+        CsvWriter writer = CsvWriter.getWriter(ReportManager.resultsFolder + fileName);
+        if (writer.getLineCount() > no_of_records_per_csv) {
+            synchronized (this) {
+                // another thread may have rolled the file over already
+                if (fileName.equals(getFileName(originalFileName))) {
+                    writer.close();
+                    incrementFileCounter(originalFileName);
+                    updateFileName(originalFileName);
+                    create(originalFileName, "");
+                }
                 fileName = getFileName(originalFileName);
-                file = new File(ReportManager.resultsFolder + fileName);
-                lines = FileUtils.readLines(file, (Charset) null);
+                writer = CsvWriter.getWriter(ReportManager.resultsFolder + fileName);
             }
-            lines.addAll(data);
-            FileUtils.writeLines(file, lines);
-        } catch (Exception e) {
-            reporter.report("Error occurred while writing " +
-                    data + " to a csv file named " + fileName, e);
         }
+        return writer;
     }
 
     public List<String> readHeaders(String url) throws IOException {
-        List<String> sHeaders = new ArrayList<>();
-        if (!url.contentEquals("")) {
-            URL uri = new URL(url);
-            URLConnection urlConn = uri.openConnection();
-            InputStreamReader inputCSV = new InputStreamReader(urlConn.getInputStream());
-            BufferedReader br = new BufferedReader(inputCSV);
-            String line;
-
-            while ((line = br.readLine()) != null) {
-                String[] values = line.split(","); // separator
-                for (String header : values) {
-                    sHeaders.add(header.replace("\"", ""));
-                }
-                break;
-            }
+        if (url.contentEquals(""))
+            return new ArrayList<>();
+        try (var reader = new CsvUrlReader(new URL(url), getRetries())) {
+            return new ArrayList<>(reader.getHeaders());
         }
-        return sHeaders;
     }
 
     public String saveAsFile(String url) {
@@ -182,6 +160,11 @@ public class Csv {
         return null;
     }
 
+    private int getRetries() {
+        String retries = configuration.getProperty("csv_url_retries", "3");
+        return retries == null || retries.isBlank() ? 3 : Integer.parseInt(retries.trim());
+    }
+
     private static void incrementFileCounter(String fileName) {
         if (csvFileCounter.containsKey(fileName)) {
             int fileCounter = csvFileCounter.get(fileName);
@@ -198,11 +181,7 @@ public class Csv {
     }
 
     private static String getFileName(String fileName) {
-        if (csvFileNames.containsKey(fileName))
-            return csvFileNames.get(fileName);
-        else
-            csvFileNames.put(fileName,fileName);
-        return fileName;
+        return csvFileNames.computeIfAbsent(fileName, name -> name);
     }
 
 }
@@ -0,0 +1,240 @@
+package com.qa.core.dataLib;
+
+import com.qa.core.dataHandler.CsvTokenizer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streaming reader of a csv served over a url, rows are tokenized with the same quoting rules as
+ * csv files and handed out one at a time, so the size of the csv does not matter.
+ *
+ * Nothing is read ahead of the consumer besides a fixed size buffer, a slow consumer leaves the
+ * data in the socket and the server is throttled by the transport. Gzip content is decoded on the
+ * fly, either when the server sends it gzip encoded or when the url points to a .gz file. When the
+ * connection drops midway and the server supports byte ranges, the download is resumed from the
+ * last byte received as long as the content did not change in between.
+ */
+public class CsvUrlReader implements Iterator<LinkedHashMap<String, String>>, Closeable {
+
+    private final CsvTokenizer tokenizer;
+    private final List<String> headers = new ArrayList<>();
+    private String[] next;
+
+    public CsvUrlReader(URL url, int retries) throws IOException {
+        tokenizer = new CsvTokenizer(open(url, retries));
+        try {
+            String[] line = tokenizer.next();
+            if (line != null) {
+                for (String header : line)
+                    headers.add(header);
+            }
+            next = tokenizer.next();
+        } catch (IOException e) {
+            tokenizer.close();
+            throw e;
+        }
+    }
+
+    /***
+     * Opens a character stream of the url content, decoding gzip content and resuming the
+     * download when the connection drops
+     *
+     * @param url     - csv url
+     * @param retries - number of times a dropped download is resumed before giving up
+     * @return reader of the csv content
+     * @author vamsikrishna.kayyala
+     */
+    public static Reader open(URL url, int retries) throws IOException {
+        ResumableInputStream in = new ResumableInputStream(url, retries);
+        try {
+            InputStream content = in.isGzip() ? new GZIPInputStream(in, 64 * 1024) : in;
+            return new InputStreamReader(content, in.getCharset());
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public LinkedHashMap<String, String> next() {
+        if (next == null)
+            throw new NoSuchElementException();
+        LinkedHashMap<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < next.length && i < headers.size(); i++)
+            row.put(headers.get(i), next[i]);
+        try {
+            next = tokenizer.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the csv url", e);
+        }
+        return row;
+    }
+
+    /***
+     * Streams the remaining rows of the csv, closing the stream closes the connection
+     *
+     * @return stream of rows where each row is represented as a map of column name and column value
+     * @author vamsikrishna.kayyala
+     */
+    public Stream<LinkedHashMap<String, String>> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        next = null;
+        tokenizer.close();
+    }
+
+    /**
+     * Raw content of the url which reconnects with a range request when reading fails, the
+     * position counts the bytes as sent by the server, so gzip content is resumed before decoding
+     */
+    private static final class ResumableInputStream extends InputStream {
+
+        private final URL url;
+        private final int retries;
+        private URLConnection connection;
+        private InputStream in;
+        private long position = 0;
+        private int attempts = 0;
+        private final long length;
+        private final String validator;
+        private final boolean rangesSupported;
+        private final boolean gzip;
+        private final Charset charset;
+
+        ResumableInputStream(URL url, int retries) throws IOException {
+            this.url = url;
+            this.retries = retries;
+            connect();
+            length = connection.getContentLengthLong();
+            String eTag = connection.getHeaderField("ETag");
+            validator = eTag != null && !eTag.startsWith("W/") ? eTag : connection.getHeaderField("Last-Modified");
+            rangesSupported = "bytes".equalsIgnoreCase(connection.getHeaderField("Accept-Ranges"));
+            gzip = "gzip".equalsIgnoreCase(connection.getContentEncoding()) || url.getPath().endsWith(".gz");
+            charset = getCharset(connection.getContentType());
+        }
+
+        boolean isGzip() {
+            return gzip;
+        }
+
+        Charset getCharset() {
+            return charset;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int read = read(b, 0, 1);
+            return read < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (true) {
+                try {
+                    int read = in.read(b, off, len);
+                    if (read > 0)
+                        position += read;
+                    else if (read < 0 && length > 0 && position < length)
+                        throw new IOException("connection closed after " + position + " of " + length + " bytes");
+                    return read;
+                } catch (IOException e) {
+                    if (!rangesSupported || validator == null || attempts >= retries)
+                        throw e;
+                    attempts++;
+                    System.out.println("Resuming the download of " + url + " from byte " + position + ": " + e.getMessage());
+                    closeQuietly();
+                    connect();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                in.close();
+            } finally {
+                if (connection instanceof HttpURLConnection)
+                    ((HttpURLConnection) connection).disconnect();
+            }
+        }
+
+        private void connect() throws IOException {
+            connection = url.openConnection();
+            if (connection instanceof HttpURLConnection) {
+                connection.setRequestProperty("Accept-Encoding", "gzip");
+                if (position > 0) {
+                    connection.setRequestProperty("Range", "bytes=" + position + "-");
+                    connection.setRequestProperty("If-Range", validator);
+                }
+                int status = ((HttpURLConnection) connection).getResponseCode();
+                if (position > 0 && (status != HttpURLConnection.HTTP_PARTIAL
+                        || !String.valueOf(connection.getHeaderField("Content-Range")).startsWith("bytes " + position + "-")))
+                    throw new IOException("Unable to resume the download of " + url + ", the server responded with " + status);
+            }
+            in = connection.getInputStream();
+        }
+
+        private void closeQuietly() {
+            try {
+                close();
+            } catch (IOException ignored) {
+                // the connection is broken already
+            }
+        }
+
+        private static Charset getCharset(String contentType) {
+            if (contentType != null) {
+                for (String param : contentType.split(";")) {
+                    param = param.trim();
+                    if (param.toLowerCase().startsWith("charset=")) {
+                        try {
+                            return Charset.forName(param.substring(8).replace("\"", "").trim());
+                        } catch (Exception ignored) {
+                            // unknown charsets are read with the default charset
+                        }
+                    }
+                }
+            }
+            return Charset.defaultCharset();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.qa.core.dataLib;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append only writer of csv lines, one instance per file shared by all the threads.
+ *
+ * Lines are queued on a lock free queue, whichever thread gets hold of the file drains the
+ * queued lines of every thread and appends them with a single write, so the file is never read
+ * back or rewritten. Appended lines are handed to the OS before the call returns, so readers see
+ * them right away, the file is forced to the disk periodically and when the writer is closed.
+ * Lines of the file are counted once when it is opened and tracked afterwards, which lets the
+ * callers roll over to a new file without reading it again.
+ */
+public final class CsvWriter implements Closeable {
+
+    private static final long FORCE_INTERVAL_MS = 1000;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final ConcurrentHashMap<String, CsvWriter> WRITERS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(CsvWriter::closeAll));
+    }
+
+    private final File file;
+    private final ConcurrentLinkedQueue<PendingLines> queue = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel channel;
+    private volatile long lineCount = -1;
+    private boolean missingLineSeparator = false;
+    private long lastForced = 0;
+
+    private CsvWriter(File file) {
+        this.file = file;
+    }
+
+    /***
+     * Returns the writer of the given csv file, the same writer is returned to every thread
+     *
+     * @param filePath - csv file path
+     * @return append only writer of the file
+     * @author vamsikrishna.kayyala
+     */
+    public static CsvWriter getWriter(String filePath) {
+        File file = new File(filePath).getAbsoluteFile();
+        return WRITERS.computeIfAbsent(file.getPath(), path -> new CsvWriter(file));
+    }
+
+    /***
+     * Flushes and closes the writers of all the files
+     *
+     * @author vamsikrishna.kayyala
+     */
+    public static void closeAll() {
+        for (CsvWriter writer : WRITERS.values())
+            writer.close();
+    }
+
+    public void append(String line) {
+        append(Collections.singletonList(line));
+    }
+
+    /***
+     * Appends the lines at the end of the file, lines of a single call are always written together
+     *
+     * @param lines - csv lines without line separators
+     * @author vamsikrishna.kayyala
+     */
+    public void append(List<String> lines) {
+        if (lines.isEmpty())
+            return;
+        PendingLines pending = new PendingLines(lines);
+        queue.add(pending);
+        while (!pending.done) {
+            lock.lock();
+            try {
+                // lines of this thread may already be written by the thread which held the lock
+                if (!pending.done)
+                    drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (pending.error != null)
+            throw new RuntimeException("Error occurred while writing " + lines + " to a csv file named " + file, pending.error);
+    }
+
+    /***
+     * Returns the number of lines in the file including the header line
+     *
+     * @return line count of the file
+     * @author vamsikrishna.kayyala
+     */
+    public long getLineCount() {
+        if (lineCount < 0) {
+            lock.lock();
+            try {
+                open();
+            } catch (IOException e) {
+                throw new RuntimeException("Error occurred while opening a csv file named " + file, e);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return lineCount;
+    }
+
+    /***
+     * Writes the queued lines, forces them to the disk and releases the file. Must be called before
+     * the file is modified by any other means, the writer opens the file again on the next append
+     *
+     * @author vamsikrishna.kayyala
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            drain();
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            channel = null;
+            lineCount = -1;
+            lock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        if (channel != null)
+            return;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ);
+        long count = 0;
+        byte last = '\n';
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long position = 0;
+        int read;
+        while ((read = channel.read(buffer, position)) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n')
+                    count++;
+            }
+            last = buffer.get(read - 1);
+            position += read;
+            buffer.clear();
+        }
+        // a last line without a line separator is still a line, the separator is added with the next append
+        missingLineSeparator = last != '\n';
+        lineCount = missingLineSeparator ? count + 1 : count;
+        channel.position(channel.size());
+    }
+
+    private void drain() {
+        List<PendingLines> batch = new ArrayList<>();
+        PendingLines pending;
+        while ((pending = queue.poll()) != null)
+            batch.add(pending);
+        if (batch.isEmpty())
+            return;
+        Exception error = null;
+        try {
+            open();
+            StringBuilder sb = new StringBuilder();
+            if (missingLineSeparator)
+                sb.append(LINE_SEPARATOR);
+            long lines = 0;
+            for (PendingLines item : batch) {
+                for (String line : item.lines) {
+                    sb.append(line).append(LINE_SEPARATOR);
+                    lines++;
+                }
+            }
+            ByteBuffer buffer = Charset.defaultCharset().encode(sb.toString());
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            missingLineSeparator = false;
+            lineCount += lines;
+            long now = System.currentTimeMillis();
+            if (now - lastForced >= FORCE_INTERVAL_MS) {
+                channel.force(false);
+                lastForced = now;
+            }
+        } catch (Exception e) {
+            error = e;
+        }
+        for (PendingLines item : batch) {
+            item.error = error;
+            item.done = true;
+        }
+    }
+
+    private static final class PendingLines {
+        private final List<String> lines;
+        private volatile Exception error;
+        private volatile boolean done = false;
+
+        PendingLines(List<String> lines) {
+            this.lines = lines;
+        }
+    }
+}
@@ -9,22 +9,40 @@ import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Component
 @Lazy
 @Scope("prototype")
 public class DataProcessor {
 
+    private static final String DEFAULT_DATE_FORMAT = "YYYY/M/d";
+    private static final String DEFAULT_TIME_ZONE = "UTC";
+
     private String data;
-    private String dateFormat = "YYYY/M/d";
-    private String timeZone = "UTC";
 
     private final Map<String, Function<String, String>> dateResolver;
+    private final Map<String, Function<String, String>> resolvers;
 
     public DataProcessor() {
         dateResolver = createDefaultDateResolver();
+        resolvers = createResolvers();
+    }
+
+    /**
+     * Resolvers by expression keyword, kept in the order the keywords are matched by prefix
+     */
+    private Map<String, Function<String, String>> createResolvers() {
+        Map<String, Function<String, String>> resolver = new LinkedHashMap<>();
+        resolver.put("day", this::parseDay);
+        resolver.put("month", this::parseMonth);
+        resolver.put("year", this::parseYear);
+        resolver.put("randnum", this::randomNumber);
+        resolver.put("unixtime", this::parseUnixTime);
+        resolver.put("currenttimeinmillis", data -> currentTimeInMillis());
+        resolver.put("unique_id", data -> currentTimeInMillis() + Thread.currentThread().getId());
+        resolver.put("faker", this::parseFaker);
+        resolver.put("uuid", data -> UUID.randomUUID().toString());
+        return resolver;
     }
 
     private Map<String, Function<String, String>> createDefaultDateResolver() {
@@ -50,53 +68,63 @@ public class DataProcessor {
         return resolver;
     }
 
+    /**
+     * @deprecated use {@link #parse(String)}, which keeps no state between the calls
+     */
+    @Deprecated
     public void init(String data) {
         this.data = data;
     }
 
+    /**
+     * @deprecated use {@link #parse(String)}, which keeps no state between the calls
+     */
+    @Deprecated
     public String parse() {
-        List<String> lData = getListUsingRegEx(data, "\\$\\$(.+?)\\$\\$");
-        if (lData.size() == 0)
-            return data;
-
-        for (String sData : lData) {
-            data = data.replace(sData, process(sData.replace("$$", "").replace("$$", "")));
-        }
-
-        data = parse();
+        data = parse(data);
         return data;
     }
 
-    private List<String> getListUsingRegEx(String data, String sRegEx) {
-        Pattern pattern = Pattern.compile(sRegEx);
-        Matcher matcher = pattern.matcher(data);
-
-        List<String> lReturn = new ArrayList<>();
-        while (matcher.find()) {
-            lReturn.add(matcher.group());
-        }
-        return lReturn;
+    /***
+     * Resolves the $$expression$$ placeholders of a value. The date format and time zone of an
+     * expression apply only to that expression, so a single instance can be used by any number
+     * of threads at the same time
+     *
+     * @param data - value holding $$expression$$ placeholders
+     * @return resolved value
+     * @author vamsikrishna.kayyala
+     */
+    public String parse(String data) {
+        return resolve(data);
+    }
+
+    /**
+     * Resolves the $$expression$$ placeholders of a value through its compiled template,
+     * values produced by the expressions are resolved again when they hold placeholders
+     */
+    private String resolve(String value) {
+        if (value == null || value.indexOf("$$") < 0)
+            return value;
+        ExpressionTemplate template = ExpressionTemplate.compile(value);
+        if (!template.hasExpressions())
+            return value;
+        return resolve(template.render(this::process));
     }
 
     public String process(String data) {
-        if (data.toLowerCase().startsWith("day")) {
-            return parseDay(data);
-        } else if (data.toLowerCase().startsWith("month")) {
-            return parseMonth(data);
-        } else if (data.toLowerCase().startsWith("year")) {
-            return parseYear(data);
-        } else if (data.toLowerCase().startsWith("randnum")) {
-            return randomNumber(data);
-        } else if (data.toLowerCase().startsWith("unixtime")) {
-            return parseUnixTime(data);
-        } else if (data.toLowerCase().startsWith("currenttimeinmillis")) {
-            return currentTimeInMillis();
-        } else if (data.toLowerCase().startsWith("unique_id")) {
-            return currentTimeInMillis() + Thread.currentThread().getId();
-        } else if (data.toLowerCase().startsWith("faker")) {
-            return parseFaker(data);
-        } else if (data.toLowerCase().startsWith("uuid")) {
-            return UUID.randomUUID().toString();
+        var sData = data.toLowerCase();
+        var resolver = resolvers.get(getKeyword(sData));
+        if (resolver == null) {
+            // keywords followed by other characters are still matched by their prefix
+            for (Map.Entry<String, Function<String, String>> entry : resolvers.entrySet()) {
+                if (sData.startsWith(entry.getKey())) {
+                    resolver = entry.getValue();
+                    break;
+                }
+            }
+        }
+        if (resolver != null) {
+            return resolver.apply(data);
         } else if (shouldProcessDate(data)) {
             var firstParam = data.split("~")[0];
             var resolvingFunction = dateResolver.get(firstParam);
@@ -109,6 +137,16 @@ public class DataProcessor {
         }
     }
 
+    /**
+     * Returns the leading run of letters and underscores, which is the resolver keyword of an expression
+     */
+    private static String getKeyword(String data) {
+        int end = 0;
+        while (end < data.length() && (Character.isLetter(data.charAt(end)) || data.charAt(end) == '_'))
+            end++;
+        return data.substring(0, end);
+    }
+
     private boolean shouldProcessDate(String data) {
         var firstParam = data.split("~")[0];
         return dateResolver.containsKey(firstParam);
@@ -141,19 +179,20 @@ public class DataProcessor {
         fn_wait(Duration.ofMillis(100));
         if (data.contains("~")) {
             var value = data.split("~")[1];
-            if (value.toLowerCase().startsWith("second")) {
+            var unit = value.toLowerCase();
+            if (unit.startsWith("second")) {
                 return parseUnixSeconds(value);
-            } else if (value.toLowerCase().startsWith("minute")) {
+            } else if (unit.startsWith("minute")) {
                 return parseUnixMinutes(value);
-            } else if (value.toLowerCase().startsWith("hour")) {
+            } else if (unit.startsWith("hour")) {
                 return parseUnixHours(value);
-            } else if (value.toLowerCase().startsWith("day")) {
+            } else if (unit.startsWith("day")) {
                 return parseUnixDay(value);
-            } else if (value.toLowerCase().startsWith("week")) {
+            } else if (unit.startsWith("week")) {
                 return parseUnixWeek(value);
-            } else if (value.toLowerCase().startsWith("month")) {
+            } else if (unit.startsWith("month")) {
                 return parseUnixMonth(value);
-            } else if (value.toLowerCase().startsWith("year")) {
+            } else if (unit.startsWith("year")) {
                 return parseUnixYear(value);
             } else {
                 return getCurrentUnixTime();
@@ -275,187 +314,189 @@ public class DataProcessor {
 
 
     public String getStartOfMonth(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = LocalDateTime.of(ldt.getYear(),
                 ldt.getMonth(),1,0,0,0);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     public String getStartOfLastMonth(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var startOfMonth = LocalDateTime.of(ldt.getYear(),
                 ldt.getMonth(),1,0,0,0);
         var localDateTime = startOfMonth.minusMonths(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     public String getStartOfNextMonth(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var startOfMonth = LocalDateTime.of(ldt.getYear(),
                 ldt.getMonth(),1,0,0,0);
         var localDateTime = startOfMonth.plusMonths(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     public String getEndOfNextMonth(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var startOfMonth = LocalDateTime.of(ldt.getYear(),
                 ldt.getMonth(),1,0,0,0);
         var localDateTime = startOfMonth.plusMonths(2).minusSeconds(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     public String getEndOfLastMonth(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var startOfMonth = LocalDateTime.of(ldt.getYear(),
                 ldt.getMonth(),1,0,0,0);
         var localDateTime = startOfMonth.minusSeconds(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     public String getEndOfMonth(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var startOfMonth = LocalDateTime.of(ldt.getYear(),
                 ldt.getMonth(),1,0,0,0);
         var localDateTime = startOfMonth.plusMonths(1).minusSeconds(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     public String getStartOfDay(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = LocalDateTime.of(ldt.getYear(),
                 ldt.getMonth(),ldt.getDayOfMonth(),0,0,0);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
-    private void getTimeZoneAndDateFormat(String parameters) {
+    private static DateParameters getDateParameters(String parameters) {
         var arParams = parameters.split("~");
-        timeZone = arParams.length == 3 ? arParams[2] : "UTC";
-        dateFormat = arParams.length >= 2 ? arParams[1] : "YYYY/M/d";
+        return new DateParameters(arParams.length >= 2 ? arParams[1] : DEFAULT_DATE_FORMAT,
+                arParams.length == 3 ? arParams[2] : DEFAULT_TIME_ZONE);
     }
 
     private String getEndOfDay(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = ldt.toLocalDate().atTime(23, 59, 59);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     public String getStartOfTomorrow(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = LocalDateTime.of(ldt.getYear(),
                 ldt.getMonth(),ldt.getDayOfMonth(),0,0,0);
         localDateTime = localDateTime.plusDays(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     public String getEndOfTomorrow(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = LocalDateTime.of(ldt.getYear(),
                 ldt.getMonth(),ldt.getDayOfMonth(),0,0,0);
         localDateTime = localDateTime.plusDays(2).minusSeconds(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     public String getStartOfYesterday(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = LocalDateTime.of(ldt.getYear(),
                 ldt.getMonth(),ldt.getDayOfMonth(),0,0,0);
         localDateTime = localDateTime.minusDays(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     public String getEndOfYesterday(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = LocalDateTime.of(ldt.getYear(),
                 ldt.getMonth(),ldt.getDayOfMonth(),0,0,0);
         localDateTime = localDateTime.minusSeconds(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     private String getStartOfYear(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = LocalDateTime.of(ldt.getYear(),
                 1,1,0,0,0);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     private String getEndOfYear(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = LocalDateTime.of(ldt.getYear(),
                 12,31,23,59,59);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     private String getStartOfNextYear(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = LocalDateTime.of(ldt.getYear(),
                 1,1,0,0,0);
         localDateTime = localDateTime.plusYears(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     private String getEndOfNextYear(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = LocalDateTime.of(ldt.getYear(),
                 12,31,23,59,59);
         localDateTime = localDateTime.plusYears(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     private String getStartOfLastYear(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = LocalDateTime.of(ldt.getYear(),
                 1,1,0,0,0);
         localDateTime = localDateTime.minusYears(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
     private String getEndOfLastYear(String parameters) {
-        getTimeZoneAndDateFormat(parameters);
-        ZonedDateTime ldt = getCurrentZonedDateTime(timeZone);
+        var params = getDateParameters(parameters);
+        ZonedDateTime ldt = getCurrentZonedDateTime(params.timeZone);
         var localDateTime = LocalDateTime.of(ldt.getYear(),
                 12,31,23,59,59);
         localDateTime = localDateTime.minusYears(1);
-        DateTimeFormatter format = DateTimeFormatter.ofPattern(dateFormat, Locale.ENGLISH);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(params.dateFormat, Locale.ENGLISH);
         return format.format(localDateTime);
     }
 
-    private List<String> parseDateParameter(String value) {
+    private static List<String> parseDateParameter(String value) {
         List<String> outputs = new ArrayList<>();
+        String dateFormat = DEFAULT_DATE_FORMAT;
+        String timeZone = DEFAULT_TIME_ZONE;
         if (value.contains("~")) {
             var values = value.split("~");
             dateFormat = values[1];
@@ -521,4 +562,17 @@ public class DataProcessor {
         }
     }
 
+    /**
+     * Date format and time zone of a single date expression
+     */
+    private static final class DateParameters {
+        private final String dateFormat;
+        private final String timeZone;
+
+        DateParameters(String dateFormat, String timeZone) {
+            this.dateFormat = dateFormat;
+            this.timeZone = timeZone;
+        }
+    }
+
 }
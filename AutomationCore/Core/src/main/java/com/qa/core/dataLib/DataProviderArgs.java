@@ -13,5 +13,16 @@ public @interface DataProviderArgs {
     String column() default "";
     String value() default "";
     String filters() default "";
+
+    /**
+     * Zero based shard to run, rows are split across shards by their position in the filtered data.
+     * When it is not set, data_shard_index run configuration is used if present
+     */
+    int shardIndex() default -1;
+
+    /**
+     * Total number of shards, when it is not set, data_shard_count run configuration is used if present
+     */
+    int shardCount() default -1;
 }
 
@@ -0,0 +1,133 @@
+package com.qa.core.dataLib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Pre-compiled form of a cell value holding $$expression$$ placeholders. The value is tokenized
+ * once into literal text and expression references, so rendering it again is a single pass
+ * which only evaluates the expressions and concatenates the parts.
+ *
+ * Expressions are found the same way as the \$\$(.+?)\$\$ pattern finds them, an expression
+ * repeated within the value is evaluated once and every occurrence gets the same result.
+ */
+final class ExpressionTemplate {
+
+    private static final int MAX_CACHED_TEMPLATES = 4096;
+    private static final ConcurrentHashMap<String, ExpressionTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final String source;
+    private final String[] literals;
+    private final int[] references;
+    private final String[] expressions;
+
+    private ExpressionTemplate(String source, String[] literals, int[] references, String[] expressions) {
+        this.source = source;
+        this.literals = literals;
+        this.references = references;
+        this.expressions = expressions;
+    }
+
+    /***
+     * Returns the compiled template of a value, templates are cached and shared by all the threads
+     *
+     * @param source - cell value which may hold $$expression$$ placeholders
+     * @return compiled template
+     * @author vamsikrishna.kayyala
+     */
+    static ExpressionTemplate compile(String source) {
+        ExpressionTemplate template = TEMPLATES.get(source);
+        if (template == null) {
+            template = tokenize(source);
+            // resolved values are compiled again when they hold nested placeholders, they are not worth caching forever
+            if (TEMPLATES.size() < MAX_CACHED_TEMPLATES)
+                TEMPLATES.putIfAbsent(source, template);
+        }
+        return template;
+    }
+
+    boolean hasExpressions() {
+        return expressions.length > 0;
+    }
+
+    /***
+     * Renders the template, every distinct expression is resolved once
+     *
+     * @param resolver - resolves the expression text found between the $$ markers
+     * @return value with all the expressions replaced by their resolved values
+     * @author vamsikrishna.kayyala
+     */
+    String render(Function<String, String> resolver) {
+        if (expressions.length == 0)
+            return source;
+        String[] values = new String[expressions.length];
+        StringBuilder sb = new StringBuilder(source.length() + 16);
+        for (int i = 0; i < references.length; i++) {
+            sb.append(literals[i]);
+            int reference = references[i];
+            if (values[reference] == null) {
+                values[reference] = resolver.apply(expressions[reference]);
+                if (values[reference] == null)
+                    throw new RuntimeException("Unable to resolve $$" + expressions[reference] + "$$ in " + source);
+            }
+            sb.append(values[reference]);
+        }
+        return sb.append(literals[references.length]).toString();
+    }
+
+    private static ExpressionTemplate tokenize(String source) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> references = new ArrayList<>();
+        List<String> matches = new ArrayList<>();
+        int length = source.length();
+        int literalStart = 0;
+        int start = source.indexOf("$$");
+        while (start >= 0) {
+            int end = findEnd(source, start);
+            if (end < 0) {
+                // same as the regex, a failed match is retried from the next character
+                start = source.indexOf("$$", start + 1);
+                continue;
+            }
+            String match = source.substring(start, end + 2);
+            int reference = matches.indexOf(match);
+            if (reference < 0) {
+                reference = matches.size();
+                matches.add(match);
+            }
+            literals.add(source.substring(literalStart, start));
+            references.add(reference);
+            literalStart = end + 2;
+            start = literalStart < length ? source.indexOf("$$", literalStart) : -1;
+        }
+        literals.add(source.substring(literalStart));
+
+        String[] expressions = new String[matches.size()];
+        for (int i = 0; i < expressions.length; i++)
+            expressions[i] = matches.get(i).replace("$$", "");
+        return new ExpressionTemplate(source,
+                literals.toArray(new String[0]),
+                references.stream().mapToInt(Integer::intValue).toArray(),
+                expressions);
+    }
+
+    /**
+     * Returns the index of the closing $$ of an expression opened at the given index, the expression
+     * holds at least one character and never spans a line terminator. Returns -1 if it is not closed
+     */
+    private static int findEnd(String source, int start) {
+        for (int end = start + 3; end + 1 < source.length(); end++) {
+            if (isLineTerminator(source.charAt(end - 1)))
+                return -1;
+            if (source.charAt(end) == '$' && source.charAt(end + 1) == '$')
+                return end;
+        }
+        return -1;
+    }
+
+    private static boolean isLineTerminator(char ch) {
+        return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+    }
+}
@@ -2,8 +2,11 @@ package com.qa.core.dataLib;
 
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.stream.Stream;
 
+import com.qa.core.context.RunConfiguration;
 import com.qa.core.dataHandler.DataParserResolver;
+import com.qa.core.dataHandler.FilterExpression;
 import com.qa.core.util.BeanUtil;
 import com.qa.core.report.ReportManager;
 import org.testng.annotations.DataProvider;
@@ -29,6 +32,44 @@ public class GenericDataProvider {
         return asTwoDimensionalArray(getDataFromExcelData(method));
     }
 
+    /***
+     * Lazy variant of excel-dp, rows are streamed from the parser while TestNG iterates them,
+     * so the complete sheet is never turned into test parameters up front. Supports the same
+     * @DataProviderArgs as excel-dp including the shard parameters.
+     * The provider is not parallel, TestNG collects all the rows of a parallel provider before
+     * running any of them, which would defeat the lazy reading. The underlying stream is closed
+     * once all the rows have been handed out
+     *
+     * @param method - it is automatically assigned from test class
+     * @return - iterator of parameter arrays, each holding a single row map
+     *
+     * @author vamsikrishna.kayyala
+     */
+    @DataProvider(name = "excel-dp-lazy", parallel = false)
+    public Iterator<Object[]> getLazyData(Method method) {
+        DataProviderArgs annotation = method.getAnnotation(DataProviderArgs.class);
+        var oExcel = excel.getInstance(annotation.name());
+        Stream<LinkedHashMap<String, String>> rows;
+        if (!annotation.filters().contentEquals("")) {
+            FilterExpression filter = getFilters(annotation.filters());
+            rows = oExcel.rawStream().map(row -> oExcel.processIfMatches(row, filter)).filter(Objects::nonNull);
+        } else if (annotation.value().contentEquals("") && (!annotation.column().contentEquals(""))) {
+            rows = oExcel.readUniqueColumnValues(annotation.column()).stream();
+        } else if (annotation.value().contentEquals("")) {
+            rows = oExcel.stream();
+        } else {
+            String column = annotation.column();
+            String value = annotation.value().equalsIgnoreCase("empty") ? "" : annotation.value();
+            rows = oExcel.stream().filter(row -> value.equals(row.get(column)));
+        }
+        int[] shard = getShard(annotation, oExcel.getRunConfigurationObj());
+        if (shard != null) {
+            long[] ordinal = {0};
+            rows = rows.filter(row -> ordinal[0]++ % shard[1] == shard[0]);
+        }
+        return new ClosingIterator(rows);
+    }
+
     public List<LinkedHashMap<String, String>> getDataFromExcelData(Method method) {
         DataProviderArgs annotation = method.getAnnotation(DataProviderArgs.class);
         String column = annotation.column();
@@ -39,8 +80,7 @@ public class GenericDataProvider {
         List<LinkedHashMap<String, String>> results;
 
         if (!filters.contentEquals("")) {
-            Map<String, String> mapFilters = getFilters(filters);
-            results = oExcel.read(mapFilters);
+            results = oExcel.read(getFilters(filters));
         } else if (value.contentEquals("") && (!column.contentEquals(""))) {
             results = oExcel.readUniqueColumnValues(column);
         } else if (value.contentEquals("")) {
@@ -50,21 +90,88 @@ public class GenericDataProvider {
                 value = "";
             results = oExcel.read(column,value);
         }
+        int[] shard = getShard(annotation, oExcel.getRunConfigurationObj());
+        if (shard != null) {
+            List<LinkedHashMap<String, String>> shardRows = new ArrayList<>();
+            for (int i = shard[0]; i < results.size(); i += shard[1])
+                shardRows.add(results.get(i));
+            results = shardRows;
+        }
         return results;
     }
 
-    private Map<String, String> getFilters(String filters) {
-        Map<String, String> filterMap = new HashMap<>();
-        String[] arFilters = filters.split(";;");
+    /**
+     * Returns the shard index and shard count to run, or null when the data is not sharded
+     */
+    private int[] getShard(DataProviderArgs annotation, RunConfiguration config) {
+        int index = annotation.shardIndex();
+        int count = annotation.shardCount();
+        if (index < 0 && config.checkProperty("data_shard_index"))
+            index = Integer.parseInt(config.getProperty("data_shard_index").trim());
+        if (count < 0 && config.checkProperty("data_shard_count"))
+            count = Integer.parseInt(config.getProperty("data_shard_count").trim());
+        if (index < 0 && count < 0)
+            return null;
+        if (count <= 0 || index < 0 || index >= count)
+            throw new IllegalArgumentException("Invalid data shard " + index + " of " + count
+                    + ", shard index must be between 0 and shard count - 1");
+        return new int[] {index, count};
+    }
+
+    /**
+     * Compiles the filters of @DataProviderArgs once, conditions are separated by ;; and may use
+     * any of the operators supported by {@link FilterExpression}
+     */
+    private FilterExpression getFilters(String filters) {
         try {
-            for(String filter : arFilters) {
-                if (!filter.contentEquals(""))
-                    filterMap.put(filter.split("==")[0], filter.split("==")[1]);
-            }
+            return FilterExpression.compile(filters);
         } catch (Exception e) {
             reportManager.report(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Iterator over the rows of a stream, the stream is closed as soon as it has no more rows so
+     * streaming readers release the file they keep open
+     */
+    private static final class ClosingIterator implements Iterator<Object[]> {
+        private final Stream<LinkedHashMap<String, String>> rows;
+        private final Iterator<LinkedHashMap<String, String>> iterator;
+        private boolean closed = false;
+
+        ClosingIterator(Stream<LinkedHashMap<String, String>> rows) {
+            this.rows = rows;
+            this.iterator = rows.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed)
+                return false;
+            boolean hasNext;
+            try {
+                hasNext = iterator.hasNext();
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+            if (!hasNext)
+                close();
+            return hasNext;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return new Object[] {iterator.next()};
+        }
+
+        private void close() {
+            closed = true;
+            rows.close();
         }
-        return filterMap;
     }
 
     private Object[][] asTwoDimensionalArray(List<LinkedHashMap<String, String>> mapData) {
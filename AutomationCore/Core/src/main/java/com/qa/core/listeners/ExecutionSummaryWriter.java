@@ -0,0 +1,152 @@
+package com.qa.core.listeners;
+
+import com.qa.core.dataLib.Csv;
+import com.qa.core.util.BeanUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background sink of the execution summary. Test threads only queue the formatted summary lines,
+ * a single daemon thread writes them to the csv in batches, once a batch is full or once the
+ * flush interval has passed. The csv is written only by that thread, so the lines keep the order
+ * in which they were queued. When the queue is full the test threads wait for the writer to catch
+ * up, a line which still cannot be queued is dropped and counted.
+ */
+final class ExecutionSummaryWriter {
+
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final int BATCH_SIZE = 200;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final long OFFER_TIMEOUT_MS = 10 * FLUSH_INTERVAL_MS;
+
+    private static final ExecutionSummaryWriter INSTANCE = new ExecutionSummaryWriter();
+
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile String fileName;
+    private volatile Thread worker;
+
+    private ExecutionSummaryWriter() {}
+
+    static ExecutionSummaryWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /***
+     * Queues a summary line, the line is written to the csv by the background thread
+     *
+     * @param fileName - summary csv file name
+     * @param line     - formatted csv line
+     * @author vamsikrishna.kayyala
+     */
+    void write(String fileName, String line) {
+        start(fileName);
+        if (!enqueue(line)) {
+            long count = dropped.incrementAndGet();
+            System.out.println("Execution summary writer is not keeping up, dropped " + count + " summary lines so far");
+        }
+    }
+
+    /***
+     * Waits until the background thread has written all the lines queued before the call
+     *
+     * @author vamsikrishna.kayyala
+     */
+    void flush() {
+        if (fileName == null)
+            return;
+        start(fileName);
+        FlushRequest request = new FlushRequest();
+        try {
+            if (!enqueue(request) || !request.done.await(OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+                System.out.println("Timed out waiting for the execution summary to be written");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dropped.get() > 0)
+            System.out.println("Execution summary is missing " + dropped.get() + " lines which could not be queued or written");
+    }
+
+    private boolean enqueue(Object item) {
+        try {
+            return queue.offer(item, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void start(String fileName) {
+        this.fileName = fileName;
+        if (worker == null) {
+            synchronized (this) {
+                if (worker == null) {
+                    Thread thread = new Thread(this::run, "execution-summary-writer");
+                    thread.setDaemon(true);
+                    worker = thread;
+                    thread.start();
+                }
+            }
+        }
+    }
+
+    private void run() {
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (true) {
+                Object item = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                long deadline = System.currentTimeMillis() + FLUSH_INTERVAL_MS;
+                while (item != null) {
+                    if (item instanceof FlushRequest) {
+                        write(batch);
+                        ((FlushRequest) item).done.countDown();
+                    } else {
+                        batch.add((String) item);
+                        if (batch.size() >= BATCH_SIZE)
+                            write(batch);
+                    }
+                    long wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0)
+                        break;
+                    item = queue.poll(wait, TimeUnit.MILLISECONDS);
+                }
+                write(batch);
+            }
+        } catch (InterruptedException e) {
+            write(batch);
+        } finally {
+            // lines queued after this point are written by a new worker, started by the next call
+            synchronized (this) {
+                if (worker == Thread.currentThread())
+                    worker = null;
+            }
+        }
+    }
+
+    private void write(List<String> lines) {
+        if (lines.isEmpty())
+            return;
+        try {
+            BeanUtil.getBean(Csv.class).write(fileName, lines);
+        } catch (Exception e) {
+            // the failed lines are dropped, the next batch is collected afresh
+            dropped.addAndGet(lines.size());
+            e.printStackTrace();
+        } finally {
+            lines.clear();
+        }
+    }
+
+    /**
+     * Marker queued by {@link #flush()}, released once the lines queued before it are written
+     */
+    private static final class FlushRequest {
+        private final CountDownLatch done = new CountDownLatch(1);
+    }
+}
@@ -1,5 +1,7 @@
 package com.qa.core.listeners;
 
+import com.qa.core.dataHandler.DataParserResolver;
+import com.qa.core.dataHandler.ExcelParser;
 import com.qa.core.util.BeanUtil;
 import com.qa.core.dataLib.Csv;
 import com.qa.core.util.TestUtil;
@@ -60,11 +62,10 @@ public class TestListener implements ITestListener {
     }
 
     private void WriteToExecutionSummary(ITestResult result, String status) {
-        Csv csv = BeanUtil.getBean(Csv.class);
         TestUtil testUtil = BeanUtil.getBean(TestUtil.class);
         testUtil.init(result);
         String failReason = getFailureReason(result, status);
-        csv.write("ExecutionSummary.csv", "\"" + result.getMethod().getTestClass().getName() + "\"" +
+        ExecutionSummaryWriter.getInstance().write("ExecutionSummary.csv", "\"" + result.getMethod().getTestClass().getName() + "\"" +
                 ",\"" + testUtil.getUpdatedTestName() + "\"" +
                 ",\"" + status + "\"" +
                 ",\"" + failReason + "\"" +
@@ -94,10 +95,13 @@ public class TestListener implements ITestListener {
 
     @Override
     public void onStart(ITestContext context) {
+        BeanUtil.getBean(DataParserResolver.class).preloadOnce();
     }
 
     @Override
     public void onFinish(ITestContext context) {
+        ExecutionSummaryWriter.getInstance().flush();
+        ExcelParser.flushBufferedWrites();
     }
 
 }
\ No newline at end of file
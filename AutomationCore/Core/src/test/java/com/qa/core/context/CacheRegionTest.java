@@ -0,0 +1,150 @@
+package com.qa.core.context;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class CacheRegionTest {
+    Path folder;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("cache-region");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private CacheRegion region(CacheSettings settings) {
+        return new CacheRegion("region", settings, folder.resolve("region"), folder.resolve("region.shared"));
+    }
+
+    @Test
+    public void test_compute_if_absent_loads_once() throws Exception {
+        CacheRegion region = region(CacheSettings.defaults());
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return region.computeIfAbsent("token", () -> {
+                        loads.incrementAndGet();
+                        sleep(200);
+                        return "value";
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results)
+                Assert.assertEquals(result.get(10, TimeUnit.SECONDS), "value");
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(loads.get(), 1);
+        Assert.assertEquals(region.getStats().loadCount(), 1L);
+    }
+
+    @Test
+    public void test_compute_if_absent_does_not_cache_null() {
+        CacheRegion region = region(CacheSettings.defaults());
+        AtomicInteger loads = new AtomicInteger();
+        Assert.assertNull(region.computeIfAbsent("key", () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        Assert.assertFalse(region.contains("key"));
+        Assert.assertEquals(region.computeIfAbsent("key", () -> {
+            loads.incrementAndGet();
+            return "value";
+        }), "value");
+        Assert.assertEquals(loads.get(), 2);
+    }
+
+    @Test
+    public void test_compute_if_absent_rethrows_loader_failure() {
+        CacheRegion region = region(CacheSettings.defaults());
+        Assert.assertThrows(IllegalStateException.class, () -> region.computeIfAbsent("key", () -> {
+            throw new IllegalStateException("failed");
+        }));
+        Assert.assertFalse(region.contains("key"));
+    }
+
+    @Test
+    public void test_disk_tier_round_trip_and_expiry() {
+        CacheSettings settings = CacheSettings.defaults().diskBacked(true).expireAfterWrite(Duration.ofMillis(300));
+        region(settings).put("key", new ArrayList<>(List.of("a", "b")));
+
+        // a new region on the same folder reads the entry written by the first one
+        CacheRegion reopened = region(settings);
+        Assert.assertEquals(reopened.get("key"), List.of("a", "b"));
+        Assert.assertEquals(reopened.getDiskHitCount(), 1L);
+
+        sleep(400);
+        Assert.assertNull(reopened.get("key"));
+        Assert.assertNull(region(settings).get("key"));
+    }
+
+    @Test
+    public void test_serializable_objects_are_weighed_by_their_serialized_size() {
+        Payload small = new Payload(new byte[0]);
+        Payload large = new Payload(new byte[100_000]);
+        Assert.assertTrue(CacheSettings.estimateWeight(large) > 100_000);
+        Assert.assertTrue(CacheSettings.estimateWeight(large) > CacheSettings.estimateWeight(small));
+        Assert.assertEquals(CacheSettings.estimateWeight(new Object()), 64);
+        // an object modified while it is serialized does not fail the put
+        Assert.assertEquals(CacheSettings.estimateWeight(new Modified()), 64);
+    }
+
+    @Test
+    public void test_entries_are_evicted_on_weight() {
+        CacheRegion region = region(CacheSettings.defaults().maximumWeight(50_000));
+        for (int i = 0; i < 10; i++)
+            region.put("key" + i, new Payload(new byte[10_000]));
+        Assert.assertTrue(region.size() < 10);
+        Assert.assertTrue(region.getStats().evictionCount() > 0);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Payload implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final byte[] data;
+
+        Payload(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    private static final class Modified implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private void writeObject(ObjectOutputStream out) {
+            throw new ConcurrentModificationException();
+        }
+    }
+}
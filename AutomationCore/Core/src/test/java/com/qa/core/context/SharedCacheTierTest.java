@@ -0,0 +1,176 @@
+package com.qa.core.context;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+public class SharedCacheTierTest {
+    Path folder;
+    Path cacheFile;
+    SharedCacheTier tier;
+
+    @BeforeClass
+    public void setUpClass() throws IOException {
+        folder = Files.createTempDirectory("shared-cache");
+        cacheFile = folder.resolve("region.shared");
+        tier = new SharedCacheTier(cacheFile, Duration.ofMinutes(5));
+    }
+
+    @BeforeMethod
+    public void setUp() {
+        tier.clear();
+    }
+
+    @AfterClass
+    public void tearDownClass() throws IOException {
+        tier.close();
+        // the mapping is released once garbage collected, until then the file cannot be deleted on windows
+        try {
+            Files.deleteIfExists(cacheFile);
+            Files.deleteIfExists(folder);
+        } catch (IOException e) {
+            cacheFile.toFile().deleteOnExit();
+            folder.toFile().deleteOnExit();
+        }
+    }
+
+    @Test
+    public void test_put_and_get() {
+        CacheTier.Entry stored = tier.put("key", "value");
+        CacheTier.Entry entry = tier.get("key");
+        Assert.assertNotNull(entry);
+        Assert.assertEquals(entry.getValue(), "value");
+        Assert.assertEquals(entry.getStamp(), stored.getStamp());
+        Assert.assertEquals(tier.stampOf("key"), stored.getStamp());
+        // the serialized size is kept so the region can weigh the entry without serializing it again
+        Assert.assertTrue(stored.getSize() > 0);
+        Assert.assertEquals(entry.getSize(), stored.getSize());
+        Assert.assertNull(tier.get("missing"));
+        Assert.assertEquals(tier.stampOf("missing"), 0L);
+    }
+
+    @Test
+    public void test_compare_and_set_conflicts() {
+        CacheTier.Entry first = tier.compareAndSet("key", 0, "first");
+        Assert.assertNotNull(first);
+        // the key is present, so it cannot be stored as absent again
+        Assert.assertNull(tier.compareAndSet("key", 0, "second"));
+
+        CacheTier.Entry replaced = tier.compareAndSet("key", first.getStamp(), "replaced");
+        Assert.assertNotNull(replaced);
+        Assert.assertNotEquals(replaced.getStamp(), first.getStamp());
+        // the stamp read before the replacement is outdated
+        Assert.assertNull(tier.compareAndSet("key", first.getStamp(), "stale"));
+        Assert.assertEquals(tier.get("key").getValue(), "replaced");
+    }
+
+    @Test
+    public void test_entries_expire() throws InterruptedException {
+        SharedCacheTier shortLived = new SharedCacheTier(cacheFile, Duration.ofMillis(50));
+        try {
+            shortLived.put("key", "value");
+            Assert.assertEquals(shortLived.get("key").getValue(), "value");
+            Thread.sleep(100);
+            Assert.assertNull(shortLived.get("key"));
+            Assert.assertEquals(shortLived.stampOf("key"), 0L);
+            // an expired entry can be stored again as absent
+            Assert.assertNotNull(shortLived.compareAndSet("key", 0, "again"));
+        } finally {
+            shortLived.close();
+        }
+    }
+
+    @Test
+    public void test_oversized_value_is_not_shared() {
+        tier.put("key", "value");
+        CacheTier.Entry entry = tier.put("key", new byte[20 * 1024]);
+        Assert.assertEquals(entry.getStamp(), 0L);
+        Assert.assertEquals(((byte[]) entry.getValue()).length, 20 * 1024);
+        // the value which was replaced is not left behind for the other forks
+        Assert.assertNull(tier.get("key"));
+    }
+
+    @Test
+    public void test_non_serializable_value_is_not_shared() {
+        Object value = new Object();
+        CacheTier.Entry entry = tier.put("key", value);
+        Assert.assertEquals(entry.getStamp(), 0L);
+        Assert.assertSame(entry.getValue(), value);
+        Assert.assertNull(tier.get("key"));
+    }
+
+    @Test
+    public void test_full_stripe_keeps_latest_entries() {
+        for (int i = 0; i < 2000; i++)
+            tier.put("key" + i, i);
+        Assert.assertEquals(tier.get("key1999").getValue(), 1999);
+    }
+
+    @Test
+    public void test_two_instances_on_one_file() {
+        SharedCacheTier other = new SharedCacheTier(cacheFile, Duration.ofMinutes(5));
+        try {
+            CacheTier.Entry stored = tier.put("key", "value");
+            Assert.assertEquals(other.get("key").getValue(), "value");
+            Assert.assertEquals(other.stampOf("key"), stored.getStamp());
+
+            Assert.assertNotNull(other.compareAndSet("key", stored.getStamp(), "other"));
+            Assert.assertNull(tier.compareAndSet("key", stored.getStamp(), "mine"));
+            Assert.assertEquals(tier.get("key").getValue(), "other");
+
+            other.delete("key");
+            Assert.assertNull(tier.get("key"));
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    public void test_regions_on_one_file_agree() throws InterruptedException {
+        CacheSettings settings = CacheSettings.defaults().sharedAcrossForks(true);
+        CacheRegion first = new CacheRegion("region", settings, folder, cacheFile);
+        CacheRegion second = new CacheRegion("region", settings, folder, cacheFile);
+        try {
+            Assert.assertEquals(first.computeIfAbsent("key", () -> "first"), "first");
+            Assert.assertEquals(second.computeIfAbsent("key", () -> "second"), "first");
+            Assert.assertEquals(second.putIfAbsent("key", "second"), "first");
+
+            Assert.assertTrue(second.replace("key", "first", "replaced"));
+            Assert.assertFalse(first.replace("key", "first", "stale"));
+            // the copy held in memory is checked against the shared file once the interval has passed
+            Thread.sleep(2 * CacheRegion.STAMP_CHECK_INTERVAL_MS);
+            Assert.assertEquals(first.get("key"), "replaced");
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void test_region_keeps_oversized_values_local() {
+        CacheRegion region = new CacheRegion("region", CacheSettings.defaults().sharedAcrossForks(true), folder, cacheFile);
+        try {
+            byte[] large = new byte[20 * 1024];
+            region.put("key", large);
+            Assert.assertNull(tier.get("key"));
+
+            // the value held in memory only is still the current value of the key
+            Assert.assertSame(region.putIfAbsent("key", "other"), large);
+            Assert.assertSame(region.get("key"), large);
+
+            Assert.assertFalse(region.replace("key", new byte[0], "stale"));
+            Assert.assertTrue(region.replace("key", large, "replaced"));
+            Assert.assertEquals(region.get("key"), "replaced");
+            Assert.assertEquals(tier.get("key").getValue(), "replaced");
+        } finally {
+            region.close();
+        }
+    }
+}
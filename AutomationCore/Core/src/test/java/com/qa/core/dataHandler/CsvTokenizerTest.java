@@ -0,0 +1,79 @@
+package com.qa.core.dataHandler;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvTokenizerTest {
+
+    private static List<String[]> tokenize(String csv) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new StringReader(csv))) {
+            String[] row;
+            while ((row = tokenizer.next()) != null)
+                rows.add(row);
+        }
+        return rows;
+    }
+
+    @Test
+    public void test_plain_rows() throws IOException {
+        List<String[]> rows = tokenize("Test_ID,Header1\nTC_01,Value\nTC_02,\n");
+        Assert.assertEquals(rows.size(), 3);
+        Assert.assertEquals(rows.get(0), new String[]{"Test_ID", "Header1"});
+        Assert.assertEquals(rows.get(1), new String[]{"TC_01", "Value"});
+        Assert.assertEquals(rows.get(2), new String[]{"TC_02", ""});
+    }
+
+    @Test
+    public void test_last_row_without_line_break() throws IOException {
+        List<String[]> rows = tokenize("a,b\nc,d");
+        Assert.assertEquals(rows.size(), 2);
+        Assert.assertEquals(rows.get(1), new String[]{"c", "d"});
+    }
+
+    @Test
+    public void test_quoted_fields() throws IOException {
+        List<String[]> rows = tokenize("\"a,b\",  \"c\",d\n");
+        Assert.assertEquals(rows.get(0), new String[]{"a,b", "c", "d"});
+    }
+
+    @Test
+    public void test_escaped_quotes() throws IOException {
+        List<String[]> rows = tokenize("\"say \"\"hi\"\"\",\"back\\\"slash\",\"\\\\\"\n");
+        Assert.assertEquals(rows.get(0), new String[]{"say \"hi\"", "back\"slash", "\\"});
+    }
+
+    @Test
+    public void test_embedded_line_breaks() throws IOException {
+        List<String[]> rows = tokenize("id,text\n1,\"first\nsecond\r\nthird\"\n2,x\n");
+        Assert.assertEquals(rows.size(), 3);
+        Assert.assertEquals(rows.get(1), new String[]{"1", "first\nsecond\nthird"});
+        Assert.assertEquals(rows.get(2), new String[]{"2", "x"});
+    }
+
+    @Test
+    public void test_byte_order_mark_is_skipped() throws IOException {
+        List<String[]> rows = tokenize("\uFEFFTest_ID,Header1\nTC_01,Value\n");
+        Assert.assertEquals(rows.get(0), new String[]{"Test_ID", "Header1"});
+        Assert.assertEquals(rows.get(1), new String[]{"TC_01", "Value"});
+    }
+
+    @Test
+    public void test_crlf_line_breaks() throws IOException {
+        List<String[]> rows = tokenize("a,b\r\nc,d\r\n");
+        Assert.assertEquals(rows.size(), 2);
+        Assert.assertEquals(rows.get(0), new String[]{"a", "b"});
+        Assert.assertEquals(rows.get(1), new String[]{"c", "d"});
+    }
+
+    @Test
+    public void test_empty_input() throws IOException {
+        Assert.assertEquals(tokenize("").size(), 0);
+        Assert.assertEquals(tokenize("\uFEFF").size(), 0);
+    }
+}
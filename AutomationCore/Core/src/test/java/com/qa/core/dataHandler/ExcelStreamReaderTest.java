@@ -0,0 +1,58 @@
+package com.qa.core.dataHandler;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ExcelStreamReaderTest {
+    String workbookPath = System.getProperty("user.dir") + "/build/resources/test/data/TestExcel.xlsx";
+    String worksheet = "TestExcel";
+    LinkedHashMap<String, String> expected_row = new LinkedHashMap<>();
+
+    @BeforeMethod
+    public void setUp() {
+        expected_row.put("Test_ID", "TC_01");
+        expected_row.put("Header1", "Value");
+        expected_row.put("Header2", "Value");
+        expected_row.put("Header3", "Value");
+        expected_row.put("Header4", "Value");
+        expected_row.put("Header5", "Value");
+        expected_row.put("ROW_NUMBER", "1");
+    }
+
+    @Test
+    public void testGetSheetNames() {
+        Assert.assertTrue(ExcelStreamReader.getSheetNames(workbookPath).contains(worksheet));
+    }
+
+    @Test
+    public void testGetHeaders() {
+        Assert.assertEquals(ExcelStreamReader.getHeaders(workbookPath, worksheet),
+                List.of("Test_ID", "Header1", "Header2", "Header3", "Header4", "Header5"));
+    }
+
+    @Test
+    public void test_full_stream() {
+        var headers = ExcelStreamReader.getHeaders(workbookPath, worksheet);
+        List<LinkedHashMap<String, String>> result;
+        try (var rows = ExcelStreamReader.stream(workbookPath, worksheet, headers)) {
+            result = rows.collect(Collectors.toList());
+        }
+        Assert.assertEquals(result.size(), 7);
+        Assert.assertEquals(result.get(0), expected_row);
+        Assert.assertEquals(result.get(5).get("Header3"), "");
+    }
+
+    @Test
+    public void test_partial_stream() {
+        var headers = ExcelStreamReader.getHeaders(workbookPath, worksheet);
+        try (var rows = ExcelStreamReader.stream(workbookPath, worksheet, headers)) {
+            var row = rows.filter(map -> map.get("Test_ID").equals("TC_01")).findFirst();
+            Assert.assertEquals(row.orElseThrow(), expected_row);
+        }
+    }
+}
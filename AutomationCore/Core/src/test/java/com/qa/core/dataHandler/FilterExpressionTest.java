@@ -0,0 +1,120 @@
+package com.qa.core.dataHandler;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FilterExpressionTest {
+
+    private static Map<String, String> row(String... cells) {
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < cells.length; i += 2)
+            row.put(cells[i], cells[i + 1]);
+        return row;
+    }
+
+    @Test
+    public void test_equal_and_not_equal() {
+        FilterExpression equal = FilterExpression.compile("Status==Active");
+        Assert.assertTrue(equal.test(row("Status", "Active")));
+        Assert.assertFalse(equal.test(row("Status", "Inactive")));
+
+        FilterExpression notEqual = FilterExpression.compile("Status!=Active");
+        Assert.assertTrue(notEqual.test(row("Status", "Inactive")));
+        Assert.assertFalse(notEqual.test(row("Status", "Active")));
+    }
+
+    @Test
+    public void test_missing_column_never_matches() {
+        Assert.assertFalse(FilterExpression.compile("Status!=Active").test(row("Name", "a")));
+        Assert.assertFalse(FilterExpression.compile("Age in 1..5").test(row("Name", "a")));
+    }
+
+    @Test
+    public void test_in_list_and_range() {
+        FilterExpression in = FilterExpression.compile("Env in (qa, uat ,prod)");
+        Assert.assertTrue(in.test(row("Env", "uat")));
+        Assert.assertTrue(in.test(row("Env", "prod")));
+        Assert.assertFalse(in.test(row("Env", "dev")));
+
+        FilterExpression range = FilterExpression.compile("Age in 18..65");
+        Assert.assertTrue(range.test(row("Age", "18")));
+        Assert.assertTrue(range.test(row("Age", "65")));
+        Assert.assertTrue(range.test(row("Age", "40.5")));
+        Assert.assertFalse(range.test(row("Age", "66")));
+        Assert.assertFalse(range.test(row("Age", "abc")));
+
+        FilterExpression textRange = FilterExpression.compile("Name in b..d");
+        Assert.assertTrue(textRange.test(row("Name", "c")));
+        Assert.assertFalse(textRange.test(row("Name", "e")));
+    }
+
+    @Test
+    public void test_comparisons() {
+        Assert.assertTrue(FilterExpression.compile("Age>10").test(row("Age", "11")));
+        Assert.assertFalse(FilterExpression.compile("Age>10").test(row("Age", "10")));
+        Assert.assertTrue(FilterExpression.compile("Age>=10").test(row("Age", "10")));
+        Assert.assertFalse(FilterExpression.compile("Age>=10").test(row("Age", "9")));
+        Assert.assertTrue(FilterExpression.compile("Age<10").test(row("Age", "9")));
+        Assert.assertFalse(FilterExpression.compile("Age<10").test(row("Age", "10")));
+        Assert.assertTrue(FilterExpression.compile("Age<=10").test(row("Age", "10")));
+        Assert.assertFalse(FilterExpression.compile("Age<=10").test(row("Age", "11")));
+        // numbers are compared as numbers, not as text
+        Assert.assertTrue(FilterExpression.compile("Age>9").test(row("Age", "10")));
+    }
+
+    @Test
+    public void test_regular_expression() {
+        FilterExpression regex = FilterExpression.compile("Id=~TC_\\d+");
+        Assert.assertTrue(regex.test(row("Id", "TC_01")));
+        // the whole value has to match
+        Assert.assertFalse(regex.test(row("Id", "TC_01_a")));
+    }
+
+    @Test
+    public void test_multiple_conditions_and_whitespace() {
+        FilterExpression filter = FilterExpression.compile(" Status ==Active;; Age >= 18 ;;Env in ( qa , uat )");
+        Assert.assertEquals(filter.getColumns(), List.of("Status", "Age", "Env"));
+        Assert.assertTrue(filter.test(row("Status", "Active", "Age", "20", "Env", "qa")));
+        Assert.assertFalse(filter.test(row("Status", "Active", "Age", "17", "Env", "qa")));
+        Assert.assertFalse(filter.test(row("Status", "Active", "Age", "20", "Env", "prod")));
+        // equality values are compared as they are written
+        Assert.assertFalse(FilterExpression.compile("Status== Active").test(row("Status", "Active")));
+        Assert.assertTrue(FilterExpression.compile("Status== Active").test(row("Status", " Active")));
+    }
+
+    @Test
+    public void test_values_containing_operators() {
+        Assert.assertTrue(FilterExpression.compile("Url==a==b").test(row("Url", "a==b")));
+        Assert.assertTrue(FilterExpression.compile("Expr==x>=5").test(row("Expr", "x>=5")));
+        Assert.assertTrue(FilterExpression.compile("Expr!=a<b").test(row("Expr", "a")));
+        Assert.assertFalse(FilterExpression.compile("Expr!=a<b").test(row("Expr", "a<b")));
+    }
+
+    @Test
+    public void test_equal_to_takes_values_as_they_are() {
+        FilterExpression filter = FilterExpression.equalTo(Collections.singletonMap("Expr", "a!=b;;c"),
+                Collections.singletonMap("Status", "x==y"));
+        Assert.assertTrue(filter.test(row("Expr", "a!=b;;c", "Status", "Active")));
+        Assert.assertFalse(filter.test(row("Expr", "a!=b;;c", "Status", "x==y")));
+        Assert.assertFalse(filter.test(row("Expr", "a", "Status", "Active")));
+    }
+
+    @Test
+    public void test_empty_filter_matches_every_row() {
+        Assert.assertTrue(FilterExpression.compile("").test(row("Status", "Active")));
+        Assert.assertTrue(FilterExpression.equalTo(Collections.emptyMap()).test(row()));
+    }
+
+    @Test
+    public void test_invalid_filters() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> FilterExpression.compile("Status"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> FilterExpression.compile("==Active"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> FilterExpression.compile("Age in 18"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> FilterExpression.compile("Id=~TC_(\\d"));
+    }
+}
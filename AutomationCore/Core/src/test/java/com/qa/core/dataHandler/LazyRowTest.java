@@ -0,0 +1,116 @@
+package com.qa.core.dataHandler;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+public class LazyRowTest {
+    List<String> resolved;
+    Function<String, String> resolver;
+    LinkedHashMap<String, String> raw;
+
+    @BeforeMethod
+    public void setUp() {
+        resolved = new ArrayList<>();
+        resolver = value -> {
+            resolved.add(value);
+            return value.replace("$$", "").replace("<<", "").replace(">>", "") + "_resolved";
+        };
+        raw = new LinkedHashMap<>();
+        raw.put("Test_ID", "TC_01");
+        raw.put("Date", "$$today$$");
+        raw.put("Url", "<<url>>");
+    }
+
+    private LinkedHashMap<String, String> expected() {
+        LinkedHashMap<String, String> expected = new LinkedHashMap<>();
+        expected.put("Test_ID", "TC_01");
+        expected.put("Date", "today_resolved");
+        expected.put("Url", "url_resolved");
+        return expected;
+    }
+
+    @Test
+    public void test_cells_are_resolved_once_when_read() {
+        LazyRow row = new LazyRow(raw, resolver);
+        Assert.assertTrue(resolved.isEmpty());
+        Assert.assertEquals(row.get("Test_ID"), "TC_01");
+        Assert.assertTrue(resolved.isEmpty());
+        Assert.assertEquals(row.get("Date"), "today_resolved");
+        Assert.assertEquals(row.get("Date"), "today_resolved");
+        Assert.assertEquals(resolved, List.of("$$today$$"));
+        Assert.assertEquals(row.getUnresolved("Url"), "<<url>>");
+    }
+
+    @Test
+    public void test_filtered_cells_are_not_resolved_again() {
+        LazyRow row = new LazyRow(raw, resolver, Map.of("Date", "matched"));
+        Assert.assertEquals(row.get("Date"), "matched");
+        Assert.assertEquals(row.get("Url"), "url_resolved");
+        Assert.assertEquals(resolved, List.of("<<url>>"));
+    }
+
+    @Test
+    public void test_equals_and_copies_match_processed_row() {
+        LazyRow row = new LazyRow(raw, resolver);
+        Assert.assertEquals(row, expected());
+        Assert.assertEquals(expected(), new LazyRow(raw, resolver));
+        Assert.assertEquals(row.hashCode(), expected().hashCode());
+        Assert.assertEquals(row.toString(), expected().toString());
+        Assert.assertEquals(new LinkedHashMap<>(new LazyRow(raw, resolver)), expected());
+        Assert.assertEquals(new LazyRow(raw, resolver).clone(), expected());
+    }
+
+    @Test
+    public void test_iteration_resolves_cells() {
+        LazyRow row = new LazyRow(raw, resolver);
+        List<String> values = new ArrayList<>();
+        for (Map.Entry<String, String> entry : row.entrySet())
+            values.add(entry.getValue());
+        Assert.assertEquals(values, new ArrayList<>(expected().values()));
+        Assert.assertEquals(new ArrayList<>(new LazyRow(raw, resolver).values()), new ArrayList<>(expected().values()));
+
+        Map<String, String> visited = new LinkedHashMap<>();
+        new LazyRow(raw, resolver).forEach(visited::put);
+        Assert.assertEquals(visited, expected());
+    }
+
+    @Test
+    public void test_key_iteration_does_not_resolve() {
+        LazyRow row = new LazyRow(raw, resolver);
+        Assert.assertEquals(new ArrayList<>(row.keySet()), List.of("Test_ID", "Date", "Url"));
+        Assert.assertTrue(row.containsKey("Url"));
+        Assert.assertTrue(resolved.isEmpty());
+    }
+
+    @Test
+    public void test_removal_through_key_set_drops_pending_cell() {
+        LazyRow row = new LazyRow(raw, resolver);
+        Assert.assertTrue(row.keySet().remove("Date"));
+        Iterator<String> keys = row.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().equals("Url"))
+                keys.remove();
+        }
+        Assert.assertTrue(resolved.isEmpty());
+        Assert.assertEquals(row, Map.of("Test_ID", "TC_01"));
+
+        // a value put after the removal is kept as it is
+        row.put("Date", "$$tomorrow$$");
+        Assert.assertEquals(row.get("Date"), "$$tomorrow$$");
+        Assert.assertTrue(resolved.isEmpty());
+    }
+
+    @Test
+    public void test_remove_returns_resolved_value() {
+        LazyRow row = new LazyRow(raw, resolver);
+        Assert.assertEquals(row.remove("Url"), "url_resolved");
+        Assert.assertFalse(row.containsKey("Url"));
+        row.keySet().clear();
+        Assert.assertTrue(row.isEmpty());
+        Assert.assertEquals(resolved, List.of("<<url>>"));
+    }
+}